@@ -0,0 +1,135 @@
+package com.jakubkras.project.cache;
+
+import com.jakubkras.project.entity.ChangeFeed;
+import com.jakubkras.project.entity.MovieChange;
+import com.jakubkras.project.event.MovieChangedEvent;
+import com.jakubkras.project.service.ChangeFeedService;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+@Component
+public class ClusterInvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterInvalidationListener.class);
+
+    private final ChangeFeedService changeFeedService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final Duration pollInterval;
+    private final Duration reconnectDelay;
+    private final int catchUpBatchSize;
+    private volatile boolean running = true;
+    private long cursor;
+    private Thread listener;
+
+    @Autowired
+    public ClusterInvalidationListener(ChangeFeedService changeFeedService, ApplicationEventPublisher eventPublisher,
+                                       @Value("${movies.cluster.invalidation.enabled:true}") boolean enabled,
+                                       @Value("${spring.datasource.url}") String url,
+                                       @Value("${spring.datasource.username}") String username,
+                                       @Value("${spring.datasource.password}") String password,
+                                       @Value("${movies.cluster.poll-interval:5s}") Duration pollInterval,
+                                       @Value("${movies.cluster.reconnect-delay:2s}") Duration reconnectDelay,
+                                       @Value("${movies.cluster.catch-up-batch-size:200}") int catchUpBatchSize) {
+        this.changeFeedService = changeFeedService;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.pollInterval = pollInterval;
+        this.reconnectDelay = reconnectDelay;
+        this.catchUpBatchSize = catchUpBatchSize;
+    }
+
+    // not started by a context that only refreshes, like the CDS training run in the Dockerfile, which has no database
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            listener = Thread.ofPlatform().name("cluster-invalidation").daemon().start(this::run);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void run() {
+        boolean positioned = false;
+
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password);
+                 Statement statement = connection.createStatement()) {
+
+                statement.execute("LISTEN " + changeFeedService.channel());
+
+                if (!positioned) {
+                    cursor = changeFeedService.lastCursor();
+                    positioned = true;
+                }
+                catchUp();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollInterval.toMillis());
+
+                    if (notifications == null || notifications.length == 0) {
+                        statement.execute("SELECT 1");
+                    }
+                    catchUp();
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    log.warn("Cache invalidation channel lost, reconnecting in {}", reconnectDelay, e);
+                    sleep(reconnectDelay);
+                }
+            }
+        }
+    }
+
+    private void catchUp() {
+        ChangeFeed feed;
+        do {
+            feed = changeFeedService.changesSince(cursor, catchUpBatchSize);
+
+            for (MovieChange change : feed.getChanges()) {
+                if (!changeFeedService.instanceId().equals(change.getOrigin())) {
+                    eventPublisher.publishEvent(new MovieChangedEvent(change.getImdbID(), change.getTitle(), change.getType(), true));
+                }
+            }
+            cursor = feed.getNext();
+        } while (feed.isHasMore() && running);
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.jakubkras.project.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+public class OffHeapPayloadCache {
+
+    private record Slot(String key, int offset, int length, long expiresAt) {
+    }
+
+    private final ObjectMapper smileMapper;
+    private final ByteBuffer storage;
+    private final long ttlMillis;
+    private final Map<String, Slot> slots = new HashMap<>();
+    private final ArrayDeque<Slot> writeOrder = new ArrayDeque<>();
+    private int head;
+    private long usedBytes;
+    private long hits;
+    private long misses;
+
+    @Autowired
+    public OffHeapPayloadCache(Jackson2ObjectMapperBuilder objectMapperBuilder,
+                               @Value("${movies.omdb.cache.capacity:64MB}") DataSize capacity,
+                               @Value("${movies.omdb.cache.ttl:1h}") Duration ttl,
+                               MeterRegistry meterRegistry) {
+        this.smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+        this.storage = ByteBuffer.allocateDirect((int) Math.min(Integer.MAX_VALUE, capacity.toBytes()));
+        this.ttlMillis = ttl.toMillis();
+
+        Gauge.builder("omdb.cache.entries", this, OffHeapPayloadCache::entries).register(meterRegistry);
+        Gauge.builder("omdb.cache.used_bytes", this, OffHeapPayloadCache::usedBytes).register(meterRegistry);
+        FunctionCounter.builder("omdb.cache.hits", this, OffHeapPayloadCache::hits).register(meterRegistry);
+        FunctionCounter.builder("omdb.cache.misses", this, OffHeapPayloadCache::misses).register(meterRegistry);
+    }
+
+    public <T> T get(String key, Class<T> type) {
+        byte[] bytes = read(key);
+
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return smileMapper.readValue(bytes, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cached payload for: " + key + " cannot be read", e);
+        }
+    }
+
+    public void put(String key, Object value) {
+        try {
+            write(key, smileMapper.writeValueAsBytes(value));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Payload for: " + key + " cannot be cached", e);
+        }
+    }
+
+    synchronized byte[] read(String key) {
+        Slot slot = slots.get(key);
+
+        if (slot == null || slot.expiresAt() < System.currentTimeMillis()) {
+            misses++;
+            return null;
+        }
+        hits++;
+        byte[] bytes = new byte[slot.length()];
+        storage.get(slot.offset(), bytes);
+        return bytes;
+    }
+
+    synchronized void write(String key, byte[] bytes) {
+        if (bytes.length > storage.capacity()) {
+            return;
+        }
+
+        if (head + bytes.length > storage.capacity()) {
+            while (!writeOrder.isEmpty() && writeOrder.peekFirst().offset() >= head) {
+                evictOldest();
+            }
+            head = 0;
+        }
+        while (!writeOrder.isEmpty() && overlaps(writeOrder.peekFirst(), head, bytes.length)) {
+            evictOldest();
+        }
+
+        storage.put(head, bytes);
+        Slot slot = new Slot(key, head, bytes.length, System.currentTimeMillis() + ttlMillis);
+        Slot previous = slots.put(key, slot);
+
+        if (previous != null) {
+            usedBytes -= previous.length();
+        }
+        writeOrder.addLast(slot);
+        usedBytes += bytes.length;
+        head += bytes.length;
+    }
+
+    private void evictOldest() {
+        Slot oldest = writeOrder.pollFirst();
+
+        if (slots.get(oldest.key()) == oldest) {
+            slots.remove(oldest.key());
+            usedBytes -= oldest.length();
+        }
+    }
+
+    private boolean overlaps(Slot slot, int offset, int length) {
+        return slot.offset() < offset + length && offset < slot.offset() + slot.length();
+    }
+
+    synchronized int entries() {
+        return slots.size();
+    }
+
+    synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    private synchronized long hits() {
+        return hits;
+    }
+
+    private synchronized long misses() {
+        return misses;
+    }
+}
@@ -0,0 +1,75 @@
+package com.jakubkras.project.cache;
+
+import com.jakubkras.project.event.MovieChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+public class RenderedPageCache {
+
+    private record Page(String html, long expiresAt) {
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Map<String, Page> pages;
+    private long generation;
+
+    @Autowired
+    public RenderedPageCache(@Value("${movies.page-cache.max-entries:1000}") int maxEntries,
+                             @Value("${movies.page-cache.ttl:10m}") Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Page> eldest) {
+                return size() > RenderedPageCache.this.maxEntries;
+            }
+        };
+    }
+
+    public synchronized String get(String view, String... inputs) {
+        String key = key(view, inputs);
+        Page page = pages.get(key);
+
+        if (page == null) {
+            return null;
+        }
+        if (page.expiresAt() < System.currentTimeMillis()) {
+            pages.remove(key);
+            return null;
+        }
+        return page.html();
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(long renderedAtGeneration, String html, String view, String... inputs) {
+        if (renderedAtGeneration == generation) {
+            pages.put(key(view, inputs), new Page(html, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onMovieChanged(MovieChangedEvent event) {
+        generation++;
+        pages.clear();
+    }
+
+    private String key(String view, String... inputs) {
+        return view + Arrays.stream(inputs)
+                .map(input -> input == null ? "" : input.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining("\u0000", "\u0000", ""));
+    }
+}
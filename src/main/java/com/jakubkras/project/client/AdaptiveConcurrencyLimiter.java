@@ -0,0 +1,122 @@
+package com.jakubkras.project.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double backoff;
+    private final LatencyWindow baseline = new LatencyWindow(1024, 10);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private long rejected;
+    private long lastDecreaseNanos = System.nanoTime();
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double rttTolerance, double backoff) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.backoff = backoff;
+    }
+
+    public boolean acquire(long maxWaitNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = maxWaitNanos;
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    rejected++;
+                    return false;
+                }
+                remaining = released.awaitNanos(remaining);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess(long startNanos, long rttNanos) {
+        baseline.record(rttNanos);
+        long baselineNanos = baseline.percentileNanos();
+
+        lock.lock();
+        try {
+            if (baselineNanos > 0 && rttNanos > baselineNanos * rttTolerance) {
+                decrease(startNanos);
+            } else if (inFlight * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            release();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onDropped(long startNanos) {
+        lock.lock();
+        try {
+            decrease(startNanos);
+            release();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onIgnored() {
+        lock.lock();
+        try {
+            release();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long rejected() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decrease(long startNanos) {
+        if (startNanos - lastDecreaseNanos > 0) {
+            limit = Math.max(minLimit, limit * backoff);
+            lastDecreaseNanos = System.nanoTime();
+        }
+    }
+
+    private void release() {
+        inFlight--;
+        released.signalAll();
+    }
+}
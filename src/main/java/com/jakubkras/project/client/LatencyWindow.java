@@ -0,0 +1,37 @@
+package com.jakubkras.project.client;
+
+import java.util.Arrays;
+
+public class LatencyWindow {
+
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final long[] samples;
+    private final double percentile;
+    private int next;
+    private int size;
+    private int sinceRecompute;
+    private volatile long cachedNanos = -1;
+
+    public LatencyWindow(int capacity, double percentile) {
+        this.samples = new long[capacity];
+        this.percentile = percentile;
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+
+        if (++sinceRecompute >= RECOMPUTE_EVERY) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            cachedNanos = sorted[Math.min(size - 1, (int) Math.ceil(percentile / 100 * size) - 1)];
+        }
+    }
+
+    public long percentileNanos() {
+        return cachedNanos;
+    }
+}
@@ -0,0 +1,271 @@
+package com.jakubkras.project.client;
+
+import com.jakubkras.project.cache.OffHeapPayloadCache;
+import com.jakubkras.project.entity.Movie;
+import com.jakubkras.project.entity.OmdbResponse;
+import com.jakubkras.project.exception.OmdbOverloadedException;
+import com.jakubkras.project.timing.RequestTimings;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+public class OmdbClient {
+
+    private static final int PENDING = 0;
+    private static final int SETTLED = 1;
+    private static final int HEDGE_WON = 2;
+    private static final RestClientException NOT_HEDGED = new RestClientException("OMDb request was not hedged");
+
+    private final RestTemplate restTemplate;
+    private final OffHeapPayloadCache payloadCache;
+    private final boolean cacheEnabled;
+    private final OmdbQuota quota;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService hedgeTimer =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("omdb-hedge-timer").daemon().factory());
+    private final LatencyWindow latencies;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long maxQueueWaitNanos;
+    private final boolean hedgeEnabled;
+    private final long minHedgeDelayNanos;
+    private final double hedgeFraction;
+    private final double maxHedgeCredits;
+    private double hedgeCredits;
+
+    @Autowired
+    public OmdbClient(RestTemplateBuilder restTemplateBuilder, OffHeapPayloadCache payloadCache, OmdbQuota quota,
+                      @Value("${movies.omdb.cache.enabled:true}") boolean cacheEnabled,
+                      @Value("${movies.omdb.hedge.enabled:true}") boolean hedgeEnabled,
+                      @Value("${movies.omdb.hedge.percentile:95}") double percentile,
+                      @Value("${movies.omdb.hedge.min-delay:20ms}") Duration minHedgeDelay,
+                      @Value("${movies.omdb.hedge.max-fraction:0.05}") double hedgeFraction,
+                      @Value("${movies.omdb.limit.initial:10}") int initialLimit,
+                      @Value("${movies.omdb.limit.min:2}") int minLimit,
+                      @Value("${movies.omdb.limit.max:100}") int maxLimit,
+                      @Value("${movies.omdb.limit.rtt-tolerance:2.0}") double rttTolerance,
+                      @Value("${movies.omdb.limit.backoff:0.9}") double backoff,
+                      @Value("${movies.omdb.limit.max-queue-wait:200ms}") Duration maxQueueWait,
+                      @Value("${movies.omdb.connect-timeout:2s}") Duration connectTimeout,
+                      @Value("${movies.omdb.read-timeout:5s}") Duration readTimeout,
+                      MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplateBuilder
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .build();
+        this.payloadCache = payloadCache;
+        this.cacheEnabled = cacheEnabled;
+        this.quota = quota;
+        this.latencies = new LatencyWindow(1024, percentile);
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, rttTolerance, backoff);
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+        this.hedgeEnabled = hedgeEnabled;
+        this.minHedgeDelayNanos = minHedgeDelay.toNanos();
+        this.hedgeFraction = hedgeFraction;
+        this.maxHedgeCredits = Math.max(1, hedgeFraction * 100);
+
+        Gauge.builder("omdb.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::limit).register(meterRegistry);
+        Gauge.builder("omdb.concurrency.in_flight", limiter, AdaptiveConcurrencyLimiter::inFlight).register(meterRegistry);
+        FunctionCounter.builder("omdb.concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::rejected).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hedgeTimer.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    public <T> CompletionService<T> completionService() {
+        return new ExecutorCompletionService<>(executor);
+    }
+
+    public <T> T get(String url, Class<T> type) {
+        if (!cacheEnabled) {
+            return hedgedGet(url, type);
+        }
+
+        String key = type.getName() + " " + url;
+        T cached = payloadCache.get(key, type);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        T body = hedgedGet(url, type);
+
+        if (isFound(body)) {
+            payloadCache.put(key, body);
+        }
+        return body;
+    }
+
+    private boolean isFound(Object body) {
+        if (body instanceof Movie movie) {
+            return movie.getImdbID() != null && !movie.getImdbID().trim().isEmpty()
+                    && movie.getTitle() != null && !movie.getTitle().trim().isEmpty();
+        }
+        if (body instanceof OmdbResponse response) {
+            return response.getSearch() != null;
+        }
+        return false;
+    }
+
+    // the primary attempt runs on the caller's thread; only a hedge, once the delay passes, moves to the executor
+    private <T> T hedgedGet(String url, Class<T> type) {
+        long hedgeDelayNanos = latencies.percentileNanos();
+
+        if (!hedgeEnabled || hedgeDelayNanos < 0) {
+            return timedGet(url, type);
+        }
+
+        earnHedgeCredit();
+        Thread caller = Thread.currentThread();
+        AtomicInteger state = new AtomicInteger(PENDING);
+        CompletableFuture<T> hedged = new CompletableFuture<>();
+        AtomicReference<Future<?>> hedge = new AtomicReference<>();
+        Callable<T> hedgeAttempt = RequestTimings.propagate(() -> timedGet(url, type));
+
+        ScheduledFuture<?> timer = hedgeTimer.schedule(() -> {
+            if (state.get() != PENDING || !spendHedgeCredit()) {
+                hedged.completeExceptionally(NOT_HEDGED);
+                return;
+            }
+            hedge.set(executor.submit(() -> {
+                if (state.get() != PENDING) {
+                    hedged.completeExceptionally(NOT_HEDGED);
+                    return;
+                }
+                try {
+                    T hedgeBody = hedgeAttempt.call();
+                    if (state.compareAndSet(PENDING, HEDGE_WON)) {
+                        caller.interrupt();
+                    }
+                    hedged.complete(hedgeBody);
+                } catch (Exception e) {
+                    hedged.completeExceptionally(e);
+                }
+            }));
+        }, Math.max(hedgeDelayNanos, minHedgeDelayNanos), TimeUnit.NANOSECONDS);
+
+        T body;
+        try {
+            body = timedGet(url, type);
+        } catch (RuntimeException e) {
+            if (timer.cancel(false)) {
+                throw e;
+            }
+            if (Thread.currentThread().isInterrupted() && state.compareAndSet(PENDING, SETTLED)) {
+                cancel(hedge.get());
+                throw e;
+            }
+            return awaitHedge(hedged, state, e);
+        }
+
+        if (state.compareAndSet(PENDING, SETTLED)) {
+            timer.cancel(false);
+            cancel(hedge.get());
+            return body;
+        }
+        return awaitHedge(hedged, state, null);
+    }
+
+    private static void cancel(Future<?> attempt) {
+        if (attempt != null) {
+            attempt.cancel(true);
+        }
+    }
+
+    private <T> T awaitHedge(CompletableFuture<T> hedged, AtomicInteger state, RuntimeException primaryFailure) {
+        try {
+            return hedged.join();
+        } catch (CompletionException | CancellationException e) {
+            if (primaryFailure != null) {
+                throw primaryFailure;
+            }
+            throw new RestClientException("OMDb request failed", e.getCause());
+        } finally {
+            // the winning hedge interrupts the caller to abort its request; clear only that interrupt
+            if (state.get() == HEDGE_WON) {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    private <T> T timedGet(String url, Class<T> type) {
+        acquire();
+        try {
+            quota.acquire();
+        } catch (RuntimeException e) {
+            limiter.onIgnored();
+            throw e;
+        }
+        long start = System.nanoTime();
+
+        try {
+            T body = RequestTimings.time(RequestTimings.OMDB, () -> restTemplate.getForObject(url, type));
+            long rtt = System.nanoTime() - start;
+            latencies.record(rtt);
+            limiter.onSuccess(start, rtt);
+            return body;
+        } catch (HttpClientErrorException e) {
+            latencies.record(System.nanoTime() - start);
+            limiter.onIgnored();
+            throw e;
+        } catch (RuntimeException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                limiter.onIgnored();
+            } else {
+                latencies.record(System.nanoTime() - start);
+                limiter.onDropped(start);
+            }
+            throw e;
+        }
+    }
+
+    private void acquire() {
+        try {
+            if (!limiter.acquire(maxQueueWaitNanos)) {
+                throw new OmdbOverloadedException("Too many concurrent requests to OMDb, limit: " + limiter.limit());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RestClientException("OMDb request was interrupted", e);
+        }
+    }
+
+    private synchronized void earnHedgeCredit() {
+        hedgeCredits = Math.min(maxHedgeCredits, hedgeCredits + hedgeFraction);
+    }
+
+    private synchronized boolean spendHedgeCredit() {
+        if (hedgeCredits < 1) {
+            return false;
+        }
+        hedgeCredits--;
+        return true;
+    }
+}
@@ -0,0 +1,111 @@
+package com.jakubkras.project.client;
+
+import com.jakubkras.project.exception.OmdbOverloadedException;
+import com.jakubkras.project.timing.RequestTimings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class OmdbQuota {
+
+    private static final String UPSERT_BUCKET = """
+            INSERT INTO omdb_quota (name, tokens, capacity, rate, refilled_at)
+            VALUES (?, ?, ?, ?, clock_timestamp())
+            ON CONFLICT (name) DO UPDATE SET capacity = excluded.capacity, rate = excluded.rate
+            """;
+
+    private static final String LEASE_TOKENS = """
+            WITH bucket AS (
+                SELECT name, least(capacity, tokens + extract(epoch FROM clock_timestamp() - refilled_at) * rate) AS available
+                FROM omdb_quota
+                WHERE name = ?
+                FOR UPDATE
+            )
+            UPDATE omdb_quota q
+            SET tokens = bucket.available - least(?, floor(bucket.available)),
+                refilled_at = clock_timestamp()
+            FROM bucket
+            WHERE q.name = bucket.name
+            RETURNING least(?, floor(bucket.available))::integer
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final String name;
+    private final int limit;
+    private final Duration period;
+    private final int burst;
+    private final int leaseSize;
+    private final Counter exhausted;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile int localTokens;
+
+    @Autowired
+    public OmdbQuota(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                     @Value("${movies.omdb.quota.enabled:true}") boolean enabled,
+                     @Value("${movies.omdb.quota.name:omdb}") String name,
+                     @Value("${movies.omdb.quota.limit:1000}") int limit,
+                     @Value("${movies.omdb.quota.period:1d}") Duration period,
+                     @Value("${movies.omdb.quota.burst:50}") int burst,
+                     @Value("${movies.omdb.quota.lease:5}") int leaseSize,
+                     MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.name = name;
+        this.limit = limit;
+        this.period = period;
+        this.burst = burst;
+        this.leaseSize = leaseSize;
+
+        Gauge.builder("omdb.quota.local_tokens", this, OmdbQuota::localTokens).register(meterRegistry);
+        this.exhausted = Counter.builder("omdb.quota.exhausted").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerBucket() {
+        if (enabled) {
+            jdbcTemplate.update(UPSERT_BUCKET, name, (double) burst, (double) burst, limit * 1000.0 / period.toMillis());
+        }
+    }
+
+    public void acquire() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (localTokens == 0) {
+                Integer granted = RequestTimings.time(RequestTimings.DB, () -> transactionTemplate.execute(transaction ->
+                        jdbcTemplate.query(LEASE_TOKENS, resultSet -> resultSet.next() ? resultSet.getInt(1) : 0, name, leaseSize, leaseSize)));
+                localTokens = granted != null ? granted : 0;
+            }
+            if (localTokens == 0) {
+                exhausted.increment();
+                throw new OmdbOverloadedException("OMDb quota of " + limit + " requests per " + period + " is used up");
+            }
+            localTokens--;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int localTokens() {
+        return localTokens;
+    }
+}
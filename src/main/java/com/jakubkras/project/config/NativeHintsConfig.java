@@ -0,0 +1,32 @@
+package com.jakubkras.project.config;
+
+import com.jakubkras.project.entity.ErrorResponse;
+import com.jakubkras.project.entity.Movie;
+import com.jakubkras.project.entity.OmdbResponse;
+import com.jakubkras.project.entity.QueryResults;
+import com.jakubkras.project.entity.Rating;
+import com.jakubkras.project.entity.SuggestionsErrorResponse;
+import com.jakubkras.project.entity.TitleSuggestion;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+@Configuration
+@RegisterReflectionForBinding({Movie.class, Rating.class, OmdbResponse.class, QueryResults.class,
+        ErrorResponse.class, SuggestionsErrorResponse.class, TitleSuggestion.class})
+@ImportRuntimeHints(NativeHintsConfig.ProjectRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static class ProjectRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.reflection().registerType(TitleSuggestion.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            hints.resources().registerPattern("schema.sql");
+            hints.resources().registerPattern("templates/*.html");
+        }
+    }
+}
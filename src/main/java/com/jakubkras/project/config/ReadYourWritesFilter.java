@@ -0,0 +1,97 @@
+package com.jakubkras.project.config;
+
+import com.jakubkras.project.event.MovieChangedEvent;
+import com.jakubkras.project.timing.RequestTimings;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String READ_AFTER_COOKIE = "movies-read-after";
+
+    private final JdbcTemplate primary;
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final int cookieMaxAge;
+
+    public ReadYourWritesFilter(DataSource primary, ReplicaRoutingDataSource routingDataSource, Duration cookieTtl) {
+        this.primary = new JdbcTemplate(primary);
+        this.routingDataSource = routingDataSource;
+        this.cookieMaxAge = (int) cookieTtl.toSeconds();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !routingDataSource.hasReplicas();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        routingDataSource.requireLsn(readAfter(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            routingDataSource.clearRequiredLsn();
+        }
+    }
+
+    // runs before the other after-commit listeners, so their reads on this thread already wait for the write
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        if (!event.remote()) {
+            recordWrite();
+        }
+    }
+
+    // pins the rest of this thread's reads, and the client's next requests, to replicas that replayed the write
+    public void recordWrite() {
+        if (!routingDataSource.hasReplicas()) {
+            return;
+        }
+        String lsn = RequestTimings.time(RequestTimings.DB, () -> primary.queryForObject("SELECT pg_current_wal_lsn()::text", String.class));
+        long position = ReplicaRoutingDataSource.parseLsn(lsn);
+        routingDataSource.requireLsn(position);
+
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletResponse response = attributes.getResponse();
+            if (response != null && !response.isCommitted()) {
+                Cookie cookie = new Cookie(READ_AFTER_COOKIE, Long.toString(routingDataSource.requiredLsn()));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                cookie.setMaxAge(cookieMaxAge);
+                response.addCookie(cookie);
+            }
+        }
+    }
+
+    private static long readAfter(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return 0;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (READ_AFTER_COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,34 @@
+package com.jakubkras.project.config;
+
+import java.time.Duration;
+
+class ReplicaLagMonitor {
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final Duration checkInterval;
+    private volatile boolean running = true;
+    private Thread monitor;
+
+    ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, Duration checkInterval) {
+        this.routingDataSource = routingDataSource;
+        this.checkInterval = checkInterval;
+    }
+
+    void start() {
+        monitor = Thread.ofPlatform().name("replica-lag-monitor").daemon().start(() -> {
+            while (running) {
+                routingDataSource.refreshReplayedLsn();
+                try {
+                    Thread.sleep(checkInterval);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+    void stop() {
+        running = false;
+        monitor.interrupt();
+    }
+}
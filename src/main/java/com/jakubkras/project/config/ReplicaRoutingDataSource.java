@@ -0,0 +1,116 @@
+package com.jakubkras.project.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final String PRIMARY = "primary";
+
+    private final List<DataSource> replicas;
+    private final AtomicLongArray replayedLsn;
+    private final ThreadLocal<Long> requiredLsn = new ThreadLocal<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private ReplicaLagMonitor lagMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        this.replicas = replicas;
+        this.replayedLsn = new AtomicLongArray(replicas.size());
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+            replayedLsn.set(i, -1);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty()) {
+            return PRIMARY;
+        }
+
+        long required = requiredLsn();
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+
+        for (int offset = 0; offset < replicas.size(); offset++) {
+            int replica = (start + offset) % replicas.size();
+            if (replayedLsn.get(replica) >= required) {
+                return replica;
+            }
+        }
+        return PRIMARY;
+    }
+
+    // only the current thread's reads wait for this position: a request carries its client's last write, a background thread its own
+    public void requireLsn(long lsn) {
+        requiredLsn.set(Math.max(requiredLsn(), lsn));
+    }
+
+    public long requiredLsn() {
+        Long lsn = requiredLsn.get();
+        return lsn != null ? lsn : 0;
+    }
+
+    public void clearRequiredLsn() {
+        requiredLsn.remove();
+    }
+
+    public synchronized void monitorLag(Duration checkInterval) {
+        if (replicas.isEmpty() || lagMonitor != null) {
+            return;
+        }
+        lagMonitor = new ReplicaLagMonitor(this, checkInterval);
+        lagMonitor.start();
+    }
+
+    public void refreshReplayedLsn() {
+        for (int i = 0; i < replicas.size(); i++) {
+            try {
+                String lsn = new JdbcTemplate(replicas.get(i)).queryForObject("SELECT pg_last_wal_replay_lsn()::text", String.class);
+                recordReplayed(i, lsn != null ? parseLsn(lsn) : -1);
+            } catch (RuntimeException e) {
+                recordReplayed(i, -1);
+            }
+        }
+    }
+
+    void recordReplayed(int replica, long lsn) {
+        replayedLsn.set(replica, lsn);
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    @Override
+    public void close() throws Exception {
+        synchronized (this) {
+            if (lagMonitor != null) {
+                lagMonitor.stop();
+            }
+        }
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    public static long parseLsn(String lsn) {
+        int slash = lsn.indexOf('/');
+        return (Long.parseLong(lsn.substring(0, slash), 16) << 32) | Long.parseLong(lsn.substring(slash + 1), 16);
+    }
+}
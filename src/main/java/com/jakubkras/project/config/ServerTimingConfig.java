@@ -0,0 +1,23 @@
+package com.jakubkras.project.config;
+
+import com.jakubkras.project.timing.ServerTimingInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class ServerTimingConfig implements WebMvcConfigurer {
+
+    private final ServerTimingInterceptor serverTimingInterceptor;
+
+    @Autowired
+    public ServerTimingConfig(ServerTimingInterceptor serverTimingInterceptor) {
+        this.serverTimingInterceptor = serverTimingInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(serverTimingInterceptor);
+    }
+}
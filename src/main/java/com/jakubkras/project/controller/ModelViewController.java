@@ -1,24 +1,40 @@
 package com.jakubkras.project.controller;
 
 
+import com.jakubkras.project.cache.RenderedPageCache;
 import com.jakubkras.project.entity.Movie;
 import com.jakubkras.project.entity.QueryResults;
 import com.jakubkras.project.entity.Rating;
 import com.jakubkras.project.exception.MovieNotFoundException;
 import com.jakubkras.project.repository.MovieRepository;
 import com.jakubkras.project.service.OmdbService;
+import com.jakubkras.project.timing.RequestTimings;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.DigestUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.View;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Controller
@@ -31,10 +47,21 @@ public class ModelViewController {
 
     private MovieRepository movieRepository;
 
+    private RenderedPageCache renderedPageCache;
+
+    private ThymeleafViewResolver viewResolver;
+
+    private Duration httpMaxAge;
+
     @Autowired
-    public ModelViewController(OmdbService omdbService, MovieRepository movieRepository) {
+    public ModelViewController(OmdbService omdbService, MovieRepository movieRepository,
+                               RenderedPageCache renderedPageCache, ThymeleafViewResolver viewResolver,
+                               @Value("${movies.page-cache.http-max-age:60s}") Duration httpMaxAge) {
         this.omdbService = omdbService;
         this.movieRepository = movieRepository;
+        this.renderedPageCache = renderedPageCache;
+        this.viewResolver = viewResolver;
+        this.httpMaxAge = httpMaxAge;
     }
 
 
@@ -45,37 +72,117 @@ public class ModelViewController {
         return new ModelAndView("index");
     }
 
+    @GetMapping("/searchByTitle")
+    public ModelAndView searchMoviesByTitle(@RequestParam("title") String title, HttpServletRequest request, HttpServletResponse response, RedirectAttributes redirectAttributes) {
+        String html = renderedPageCache.get("searchByTitle", title);
+        if (html != null) {
+            return cacheablePage(html, request, response);
+        }
+
+        long generation = renderedPageCache.generation();
+        try {
+            Movie movie = omdbService.getMovieByTitle(title);
+            html = render("searchByTitle", Map.of("movie", movie), request, response);
+            renderedPageCache.put(generation, html, "searchByTitle", title);
+            return cacheablePage(html, request, response);
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+            return new ModelAndView("redirect:/movies/home");
+        }
+    }
+
     @PostMapping("/searchByTitle")
-    public String searchMoviesByTitle(@RequestParam("title") String title, Model model, RedirectAttributes redirectAttributes) {
-      try {
-          Movie movie = omdbService.getMovieByTitle(title);
-          model.addAttribute("movie", movie);
-          return "searchByTitle";
-      }catch (Exception e){
-          redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
-          return "redirect:/movies/home";
-      }
+    public String searchMoviesByTitle(@RequestParam("title") String title, RedirectAttributes redirectAttributes) {
+        redirectAttributes.addAttribute("title", title);
+        return "redirect:/movies/home/searchByTitle";
+    }
+
+    @GetMapping("/searchByQuery")
+    public ModelAndView searchByQuery(@RequestParam("query") String query, HttpServletRequest request, HttpServletResponse response, RedirectAttributes redirectAttributes) {
+        String html = renderedPageCache.get("searchByQuery", query);
+        if (html != null) {
+            return cacheablePage(html, request, response);
+        }
+
+        long generation = renderedPageCache.generation();
+        try {
+            List<QueryResults> results = omdbService.searchMovieByQuery(query);
+            html = render("searchByQuery", Map.of("results", results), request, response);
+            renderedPageCache.put(generation, html, "searchByQuery", query);
+            return cacheablePage(html, request, response);
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+            return new ModelAndView("redirect:/movies/home");
+        }
     }
 
     @PostMapping("/searchByQuery")
-    public String searchByQuery(@RequestParam("query") String query, Model model, RedirectAttributes redirectAttributes) {
+    public String searchByQuery(@RequestParam("query") String query, RedirectAttributes redirectAttributes) {
+        redirectAttributes.addAttribute("query", query);
+        return "redirect:/movies/home/searchByQuery";
+    }
+
+    @GetMapping("/searchByCategory")
+    public ModelAndView searchByCategory(@RequestParam("query") String query,
+                                         @RequestParam("category") String category, HttpServletRequest request, HttpServletResponse response, RedirectAttributes redirectAttributes) {
+        String html = renderedPageCache.get("searchByCategory", query, category);
+        if (html != null) {
+            return cacheablePage(html, request, response);
+        }
 
+        long generation = renderedPageCache.generation();
         try {
-           List<QueryResults> results = omdbService.searchMovieByQuery(query);
-           model.addAttribute("results", results);
-           return "searchByQuery";
-        }catch (Exception e){
+            List<Movie> results = omdbService.searchMovieByCategory(query, category);
+            html = render("searchByCategory", Map.of("results", results), request, response);
+            renderedPageCache.put(generation, html, "searchByCategory", query, category);
+            return cacheablePage(html, request, response);
+        } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
-            return "redirect:/movies/home";        }
+            return new ModelAndView("redirect:/movies/home");
+        }
     }
 
     @PostMapping("/searchByCategory")
-    public String searchByCategory(@RequestParam("query") String query,
-                                         @RequestParam("category") String category, Model model, RedirectAttributes redirectAttributes) {
+    public String searchByCategory(@RequestParam("query") String query, @RequestParam("category") String category, RedirectAttributes redirectAttributes) {
+        redirectAttributes.addAttribute("query", query);
+        redirectAttributes.addAttribute("category", category);
+        return "redirect:/movies/home/searchByCategory";
+    }
+
+    private String render(String viewName, Map<String, ?> model, HttpServletRequest request, HttpServletResponse response) throws Exception {
+        View view = viewResolver.resolveViewName(viewName, request.getLocale());
+        ContentCachingResponseWrapper buffer = new ContentCachingResponseWrapper(response);
+        long start = System.nanoTime();
+        view.render(model, request, buffer);
+        buffer.flushBuffer();
+        RequestTimings.record(RequestTimings.RENDER, System.nanoTime() - start);
+        return new String(buffer.getContentAsByteArray(), buffer.getCharacterEncoding());
+    }
+
+    private ModelAndView cacheablePage(String html, HttpServletRequest request, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(httpMaxAge).cachePublic().getHeaderValue());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        String eTag = "W/\"" + DigestUtils.md5DigestAsHex(html.getBytes(StandardCharsets.UTF_8)) + "\"";
+        if (new ServletWebRequest(request, response).checkNotModified(eTag)) {
+            return null;
+        }
+        return new ModelAndView((model, req, resp) -> {
+            resp.setContentType(MediaType.TEXT_HTML_VALUE + ";charset=UTF-8");
+            resp.getWriter().write(html);
+        });
+    }
+
+    private String redirectToResult(String view, Movie movie, RedirectAttributes redirectAttributes) {
+        redirectAttributes.addAttribute("imdbID", movie.getImdbID());
+        return "redirect:/movies/home/" + view;
+    }
+
+    private String showResult(String view, String imdbID, Model model, HttpServletResponse response, RedirectAttributes redirectAttributes) {
         try {
-            List<Movie> results = omdbService.searchMovieByCategory(query, category);
-            model.addAttribute("results", results);
-            return "searchByCategory";
+            model.addAttribute("movie", omdbService.getMovieByImdbID(imdbID));
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+            return view;
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
             return "redirect:/movies/home";
@@ -83,21 +190,23 @@ public class ModelViewController {
     }
 
     @PostMapping("/createMovie")
-    public String createMovie(@ModelAttribute("movie") Movie movie, RedirectAttributes redirectAttributes, Model model) {
+    public String createMovie(@ModelAttribute("movie") Movie movie, RedirectAttributes redirectAttributes) {
         try {
             Movie savedMovie = omdbService.createMovieFront(movie);
-
-            model.addAttribute("movie", savedMovie);
-
-            return "createMovie";
+            return redirectToResult("createMovie", savedMovie, redirectAttributes);
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
             return "redirect:/movies/home";
         }
     }
 
+    @GetMapping("/createMovie")
+    public String createdMovie(@RequestParam String imdbID, Model model, HttpServletResponse response, RedirectAttributes redirectAttributes) {
+        return showResult("createMovie", imdbID, model, response, redirectAttributes);
+    }
+
     @PostMapping("/addRating")
-    public String addRating (@RequestParam String title, @ModelAttribute("movie") Movie movie, Model model, RedirectAttributes redirectAttributes){
+    public String addRating (@RequestParam String title, @ModelAttribute("movie") Movie movie, RedirectAttributes redirectAttributes){
         try {
             List<Rating> ratings = new ArrayList<>();
 
@@ -106,8 +215,7 @@ public class ModelViewController {
             }
 
             Movie updatedMovie = omdbService.addRating(title, ratings);
-            model.addAttribute("movie", updatedMovie);
-            return "addRating";
+            return redirectToResult("addRating", updatedMovie, redirectAttributes);
 
         }catch (Exception e){
             redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
@@ -115,14 +223,17 @@ public class ModelViewController {
         }
     }
 
+    @GetMapping("/addRating")
+    public String addedRating(@RequestParam String imdbID, Model model, HttpServletResponse response, RedirectAttributes redirectAttributes) {
+        return showResult("addRating", imdbID, model, response, redirectAttributes);
+    }
+
     @PostMapping("/updateMovie")
-    public String updateMovie(@RequestParam String imdbID, @ModelAttribute("movie")  Movie movie, Model model, RedirectAttributes redirectAttributes) {
+    public String updateMovie(@RequestParam String imdbID, @ModelAttribute("movie")  Movie movie, RedirectAttributes redirectAttributes) {
         try{
 
            Movie updatedMovie =omdbService.updateMovieByImdbID(imdbID, movie);
-
-            model.addAttribute("movie", updatedMovie);
-            return "updateMovie";
+            return redirectToResult("updateMovie", updatedMovie, redirectAttributes);
 
         }catch (Exception e){
             redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
@@ -130,12 +241,16 @@ public class ModelViewController {
         }
     }
 
+    @GetMapping("/updateMovie")
+    public String updatedMovie(@RequestParam String imdbID, Model model, HttpServletResponse response, RedirectAttributes redirectAttributes) {
+        return showResult("updateMovie", imdbID, model, response, redirectAttributes);
+    }
+
     @PostMapping("/deleteMovie")
-    public String deleteMovie (@RequestParam String imdbID, Model model, RedirectAttributes redirectAttributes){
+    public String deleteMovie (@RequestParam String imdbID, RedirectAttributes redirectAttributes){
         try{
             Movie deletedMovie = omdbService.deleteMovieByImdbID(imdbID);
-            model.addAttribute("movie", deletedMovie);
-            return "deleteMovie";
+            return redirectToResult("deleteMovie", deletedMovie, redirectAttributes);
 
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
@@ -143,17 +258,26 @@ public class ModelViewController {
         }
     }
 
+    @GetMapping("/deleteMovie")
+    public String deletedMovie(@RequestParam String imdbID, Model model, HttpServletResponse response, RedirectAttributes redirectAttributes) {
+        return showResult("deleteMovie", imdbID, model, response, redirectAttributes);
+    }
+
     @PostMapping("/enableMovie")
-    public String enableMovie (@RequestParam String title, Model model, RedirectAttributes redirectAttributes){
+    public String enableMovie (@RequestParam String title, RedirectAttributes redirectAttributes){
         try {
             Movie enabledMovie = omdbService.enableMovie(title);
-            model.addAttribute("movie", enabledMovie);
-            return "enableMovie";
+            return redirectToResult("enableMovie", enabledMovie, redirectAttributes);
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
             return "redirect:/movies/home";
         }
     }
 
+    @GetMapping("/enableMovie")
+    public String enabledMovie(@RequestParam String imdbID, Model model, HttpServletResponse response, RedirectAttributes redirectAttributes) {
+        return showResult("enableMovie", imdbID, model, response, redirectAttributes);
+    }
+
 
 }
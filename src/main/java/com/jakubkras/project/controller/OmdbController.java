@@ -1,12 +1,22 @@
 package com.jakubkras.project.controller;
 
 
+import com.jakubkras.project.config.JacksonConfig;
+import com.jakubkras.project.entity.BulkRequest;
+import com.jakubkras.project.entity.BulkResult;
+import com.jakubkras.project.entity.ChangeFeed;
 import com.jakubkras.project.entity.ErrorResponse;
 import com.jakubkras.project.entity.Movie;
 import com.jakubkras.project.entity.QueryResults;
 import com.jakubkras.project.entity.Rating;
+import com.jakubkras.project.entity.TitleSuggestion;
+import com.jakubkras.project.exception.EmptyValueException;
 import com.jakubkras.project.exception.MovieNotFoundException;
+import com.jakubkras.project.exception.OmdbOverloadedException;
+import com.jakubkras.project.service.BulkMovieService;
+import com.jakubkras.project.service.ChangeFeedService;
 import com.jakubkras.project.service.OmdbService;
+import com.jakubkras.project.service.TitleSuggestionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,14 +25,29 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.PreDestroy;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 
@@ -35,15 +60,35 @@ public class OmdbController {
 
     private final OmdbService omdbService;
 
-    public OmdbController(OmdbService omdbService) {
+    private final BulkMovieService bulkMovieService;
+
+    private final TitleSuggestionService titleSuggestionService;
+
+    private final ChangeFeedService changeFeedService;
+
+    private final ExecutorService streamExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Duration streamTimeout;
+
+    public OmdbController(OmdbService omdbService, BulkMovieService bulkMovieService, TitleSuggestionService titleSuggestionService,
+                          ChangeFeedService changeFeedService, @Value("${movies.search.stream-timeout:30s}") Duration streamTimeout) {
         this.omdbService = omdbService;
+        this.bulkMovieService = bulkMovieService;
+        this.titleSuggestionService = titleSuggestionService;
+        this.changeFeedService = changeFeedService;
+        this.streamTimeout = streamTimeout;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streamExecutor.shutdownNow();
     }
 
 
 
     @Operation(
             summary = "Search for Movie by title",
-            description = "Fetches a Movie by its title. First, the system checks the local database for the movie. If not found, it attempts to fetch the Movie details from the external OMDB API. If the movie is deleted, an exception is thrown."
+            description = "Fetches a Movie by its title. First, the system checks the local database for the movie. If the movie is deleted, an exception is thrown. If it is not stored locally, titles within a small edit distance of local Movies are answered with 404 and ranked suggestions without calling OMDB. Only titles with no local candidate are fetched from the external OMDB API. Movies stored in the local database are returned with ETag and Last-Modified headers, and a matching If-None-Match or If-Modified-Since request header is answered with 304 Not Modified."
     )
     @ApiResponses({
             @ApiResponse(
@@ -75,6 +120,10 @@ public class OmdbController {
                             )
                     )
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Not Modified - Movie has not changed since the given ETag or date"
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Not Found - Movie does not exist",
@@ -122,9 +171,19 @@ public class OmdbController {
                     )
             )
     })
-    @GetMapping("/search/{title}")
-    public Movie getMovieByTitle(@PathVariable String title) throws MovieNotFoundException {
-       return omdbService.getMovieByTitle(title);
+    @GetMapping(path = "/search/{title}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, JacksonConfig.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<Movie> getMovieByTitle(@PathVariable String title) throws MovieNotFoundException {
+        Movie movie = omdbService.getMovieByTitle(title);
+
+        if (movie.getLastModified() == null) {
+            return ResponseEntity.ok(movie);
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(movie.getImdbID() + "-" + movie.getVersion() + "-" + movie.getLastModified().toEpochMilli())
+                .lastModified(movie.getLastModified())
+                .body(movie);
     }
 
 
@@ -187,12 +246,320 @@ public class OmdbController {
                     )
             )
     })
-    @GetMapping("/search")
+    @GetMapping(path = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, JacksonConfig.APPLICATION_SMILE_VALUE})
             public List<QueryResults> getByQuery(@RequestParam String query) throws MovieNotFoundException {
         return omdbService.searchMovieByQuery(query);
     }
 
 
+    @Operation(
+            summary = "Stream Movies found by Query",
+            description = """
+                Server-Sent Events variant of the Query search, selected with 'Accept: text/event-stream'.
+                Matches from the local database are sent first as 'result' events, followed by each Movie from the OMDB API as soon as its details arrive.
+                The stream ends with a 'complete' event holding the number of results, or with an 'error' event.
+                """
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Stream of found Movies",
+                    content = @Content(
+                            mediaType = "text/event-stream",
+                            examples = @ExampleObject(value = """
+                event:result
+                data:{"imdbID":"tt1375666","Title":"Inception","Plot":"A thief with the ability to enter people's dreams is given the chance to have his past crimes forgiven."}
+
+                event:result
+                data:{"imdbID":"tt0816692","Title":"Interstellar","Plot":"A team of explorers travel through a wormhole in space in an attempt to ensure humanity's survival."}
+
+                event:complete
+                data:{"count":2}
+                """)
+                    )
+            )
+    })
+    @GetMapping(path = "/search", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamByQuery(@RequestParam String query) {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+
+        Future<?> producer = streamExecutor.submit(() -> {
+            try {
+                int count = omdbService.streamMovieByQuery(query, result -> send(emitter, SseEmitter.event().name("result").data(result)));
+                send(emitter, SseEmitter.event().name("complete").data(Map.of("count", count)));
+                emitter.complete();
+            } catch (MovieNotFoundException e) {
+                sendError(emitter, e.getMessage(), HttpStatus.NOT_FOUND);
+            } catch (EmptyValueException e) {
+                sendError(emitter, e.getMessage(), HttpStatus.BAD_REQUEST);
+            } catch (OmdbOverloadedException e) {
+                sendError(emitter, e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+            } catch (UncheckedIOException e) {
+                emitter.completeWithError(e.getCause());
+            } catch (RuntimeException e) {
+                if (!Thread.currentThread().isInterrupted()) {
+                    sendError(emitter, e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+                }
+            }
+        });
+
+        emitter.onTimeout(() -> producer.cancel(true));
+        emitter.onError(error -> producer.cancel(true));
+        emitter.onCompletion(() -> producer.cancel(true));
+        return emitter;
+    }
+
+    private void sendError(SseEmitter emitter, String message, HttpStatus status) {
+        try {
+            send(emitter, SseEmitter.event().name("error")
+                    .data(new ErrorResponse(message, status, LocalDateTime.now(), "/search")));
+            emitter.complete();
+        } catch (UncheckedIOException e) {
+            emitter.completeWithError(e.getCause());
+        }
+    }
+
+    private void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    @Operation(
+            summary = "Full-text search for Movies",
+            description = """
+                Ranked full-text search over title, category, plot and awards of Movies stored in the local database.
+                Matches in the title weigh the most, followed by category, plot and awards.
+                The optional category filter and the result limit are applied in the database.
+                """
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Ranked list of found Movies",
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = QueryResults.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad Request - Empty Query value or invalid limit",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                {
+                  "message": "Endpoint value cannot be empty",
+                  "status": 400,
+                  "timestamp": "2025-02-22T12:00:00",
+                  "details": "/fullTextSearch"
+                }
+                """)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Not Found - No Movies found for the given query",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                {
+                  "message": "No movies for this query: dream heist",
+                  "status": 404,
+                  "timestamp": "2025-02-22T12:00:00",
+                  "details": "/fullTextSearch"
+                }
+                """)
+                    )
+            )
+    })
+    @GetMapping(path = "/fullTextSearch", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, JacksonConfig.APPLICATION_SMILE_VALUE})
+    public List<QueryResults> fullTextSearch(@RequestParam String query,
+                                             @RequestParam(required = false) String category,
+                                             @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) throws MovieNotFoundException {
+        return omdbService.fullTextSearch(query, category, limit);
+    }
+
+
+    @Operation(
+            summary = "Top rated Movies",
+            description = """
+                Returns Movies from the local database ordered by their average Rating score (0-100 scale).
+                Results can be narrowed down by category and release year.
+                """
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Movies successfully retrieved",
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = Movie.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Not Found - No rated movies match the criteria",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    value = """
+                                        {
+                                          "message": "Movies not found",
+                                          "status": 404,
+                                          "timestamp": "2025-02-22T12:00:00",
+                                          "details": "/topRated"
+                                        }
+                                        """
+                            )
+                    )
+            )
+    })
+    @GetMapping(path = "/topRated", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, JacksonConfig.APPLICATION_SMILE_VALUE})
+    public List<Movie> getTopRated(@RequestParam(required = false) String category,
+                                   @RequestParam(required = false) Integer year,
+                                   @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit) throws MovieNotFoundException {
+        return omdbService.getTopRated(category, year, limit);
+    }
+
+
+    @Operation(
+            summary = "Suggest Movie titles for a prefix",
+            description = """
+                Typeahead over titles of Movies stored in the local database, including titles a Movie had before it was renamed.
+                Suggestions are served from an in-memory index, ranked by the number of Ratings, and never call the OMDB API.
+                """
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Suggestions for the prefix, possibly empty",
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = TitleSuggestion.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad Request - Empty prefix or invalid limit",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                {
+                  "message": "Endpoint value cannot be empty",
+                  "status": 400,
+                  "timestamp": "2025-02-22T12:00:00",
+                  "details": "/suggest"
+                }
+                """)
+                    )
+            )
+    })
+    @GetMapping(path = "/suggest", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, JacksonConfig.APPLICATION_SMILE_VALUE})
+    public List<TitleSuggestion> suggest(@RequestParam String prefix,
+                                         @RequestParam(defaultValue = "10") @Min(1) @Max(10) int limit) {
+        return titleSuggestionService.suggest(prefix, limit);
+    }
+
+
+    @Operation(
+            summary = "Suggest Movie titles close to a misspelled title",
+            description = """
+                Typo-tolerant lookup over titles of Movies stored in the local database.
+                Returns titles within the configured Levenshtein distance, closest first, then by the number of Ratings.
+                Never calls the OMDB API.
+                """
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Ranked suggestions for the title, possibly empty",
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = TitleSuggestion.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad Request - Empty title",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                {
+                  "message": "Endpoint value cannot be empty",
+                  "status": 400,
+                  "timestamp": "2025-02-22T12:00:00",
+                  "details": "/didYouMean"
+                }
+                """)
+                    )
+            )
+    })
+    @GetMapping(path = "/didYouMean", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, JacksonConfig.APPLICATION_SMILE_VALUE})
+    public List<TitleSuggestion> didYouMean(@RequestParam String title) {
+        return titleSuggestionService.didYouMean(title);
+    }
+
+
+    @Operation(
+            summary = "Read Movie changes after a cursor",
+            description = """
+                Change feed of every create, update, delete, enable and rating change, oldest first.
+                Start with since=0 and pass the returned 'next' cursor as 'since' in the next request.
+                Changes are recorded in the same transaction as the write, so a change is never visible in the feed before the Movie itself.
+                Changes are ordered by their transaction and published once every older transaction has finished, so a page never splits a transaction and a later commit is never skipped.
+                """
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Changes after the cursor, possibly empty",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ChangeFeed.class),
+                            examples = @ExampleObject(value = """
+                {
+                  "changes": [
+                    {
+                      "cursor": 815,
+                      "imdbID": "tt1375666",
+                      "Title": "Inception",
+                      "type": "RATED",
+                      "changed_at": "2025-02-22T12:00:00Z"
+                    }
+                  ],
+                  "next": 815,
+                  "has_more": false
+                }
+                """)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad Request - Negative cursor or invalid limit",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                {
+                  "message": "changes.since: must be greater than or equal to 0",
+                  "status": 400,
+                  "timestamp": "2025-02-22T12:00:00",
+                  "details": "/changes"
+                }
+                """)
+                    )
+            )
+    })
+    @GetMapping(path = "/changes", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, JacksonConfig.APPLICATION_SMILE_VALUE})
+    public ChangeFeed changes(@RequestParam(defaultValue = "0") @Min(0) long since,
+                              @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+        return changeFeedService.changesSince(since, limit);
+    }
+
+
     @Operation(
             summary = "Delete a Movie by IMDB ID",
             description = "Marks a Movie as deleted in the database. If the Movie is not found in the database, it tries to fetch it from an external OMDB API and marks it as deleted there. If the Movie is already deleted, an exception is thrown."
@@ -635,7 +1002,7 @@ public class OmdbController {
                     )
             )
     })
-        @GetMapping("/searchByCategory")
+        @GetMapping(path = "/searchByCategory", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, JacksonConfig.APPLICATION_SMILE_VALUE})
     public List<Movie> getMovieByCategory (@RequestParam String query, @RequestParam String category) throws MovieNotFoundException {
        return omdbService.searchMovieByCategory(query, category);
         }
@@ -719,4 +1086,107 @@ public class OmdbController {
         }
 
 
+
+    @Operation(
+            summary = "Delete many Movies by IMDB ID",
+            description = """
+                Marks all listed Movies stored in the database as deleted, using set-based updates in chunked transactions.
+                Unlike the single delete, IDs unknown to the database are reported as NOT_FOUND and are not fetched from OMDB.
+                """
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Outcome per imdbID",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BulkResult.class),
+                            examples = @ExampleObject(
+                                    value = """
+                                        {
+                                          "changed": 1,
+                                          "outcomes": {
+                                            "tt1375666": "DELETED",
+                                            "tt0816692": "ALREADY_DELETED",
+                                            "ttt123456": "NOT_FOUND"
+                                          }
+                                        }
+                                        """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad Request - Empty list or invalid IMDB ID format",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    value = """
+                                        {
+                                          "message": "Validation failed",
+                                          "status": 400,
+                                          "timestamp": "2025-02-22T12:00:00",
+                                          "details": "{imdbIDs=Field imdbIDs cannot be empty}"
+                                        }
+                                        """
+                            )
+                    )
+            )
+    })
+    @DeleteMapping(path = "/bulk", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, JacksonConfig.APPLICATION_SMILE_VALUE})
+    public BulkResult deleteMovies(@Valid @RequestBody BulkRequest request) {
+        return bulkMovieService.deleteMovies(request.getImdbIDs());
+    }
+
+
+
+    @Operation(
+            summary = "Enable many deleted Movies by IMDB ID",
+            description = "Restores all listed deleted Movies, using set-based updates in chunked transactions. A Movie whose title is already used by an enabled Movie is reported as TITLE_CONFLICT."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Outcome per imdbID",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BulkResult.class),
+                            examples = @ExampleObject(
+                                    value = """
+                                        {
+                                          "changed": 1,
+                                          "outcomes": {
+                                            "tt1375666": "ENABLED",
+                                            "tt0816692": "ALREADY_ENABLED",
+                                            "ttt123456": "NOT_FOUND"
+                                          }
+                                        }
+                                        """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad Request - Empty list or invalid IMDB ID format",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    value = """
+                                        {
+                                          "message": "Validation failed",
+                                          "status": 400,
+                                          "timestamp": "2025-02-22T12:00:00",
+                                          "details": "{imdbIDs=Field imdbIDs cannot be empty}"
+                                        }
+                                        """
+                            )
+                    )
+            )
+    })
+    @PatchMapping(path = "/bulk", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, JacksonConfig.APPLICATION_SMILE_VALUE})
+    public BulkResult enableMovies(@Valid @RequestBody BulkRequest request) {
+        return bulkMovieService.enableMovies(request.getImdbIDs());
+    }
+
+
 }
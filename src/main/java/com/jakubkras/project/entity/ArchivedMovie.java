@@ -0,0 +1,38 @@
+package com.jakubkras.project.entity;
+
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+@Entity
+@Getter
+@Setter
+@RequiredArgsConstructor
+@Table(name = "movie_archive", uniqueConstraints = {
+        @UniqueConstraint(columnNames = "imdb_id")
+})
+public class ArchivedMovie {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int id;
+
+    @Column(name = "imdb_id", unique = true, updatable = false)
+    private String imdbID;
+
+    private String title;
+
+    private long version;
+
+    private Instant archivedAt;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private String payload;
+}
@@ -0,0 +1,25 @@
+package com.jakubkras.project.entity;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@Schema(description = "List of Movies to process in a single bulk operation")
+public class BulkRequest {
+
+    @JsonProperty("imdbIDs")
+    @NotEmpty(message = "Field imdbIDs cannot be empty")
+    @Size(max = 10000, message = "Up to 10000 imdbIDs can be processed at once")
+    @Schema(description = "IDs of Movies", example = "[\"tt1375666\", \"ttt123456\"]")
+    private List<@Pattern(regexp = "^(tt\\d{7}|ttt\\d{6})$", message = "Invalid IMDb ID format. ImdbID should start with 'tt' and after that there should be 7 digits or 'ttt' and 6 digits") String> imdbIDs;
+
+}
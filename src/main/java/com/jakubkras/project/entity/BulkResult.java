@@ -0,0 +1,40 @@
+package com.jakubkras.project.entity;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@Schema(description = "Summary of a bulk operation")
+public class BulkResult {
+
+    public enum Outcome {
+        DELETED,
+        ENABLED,
+        ALREADY_DELETED,
+        ALREADY_ENABLED,
+        NOT_FOUND,
+        TITLE_CONFLICT
+    }
+
+    @JsonProperty("changed")
+    @Schema(description = "Number of Movies changed by the operation", example = "1")
+    private int changed;
+
+    @JsonProperty("outcomes")
+    @Schema(description = "Outcome of the operation per imdbID", example = "{\"tt1375666\": \"DELETED\", \"ttt123456\": \"NOT_FOUND\"}")
+    private Map<String, Outcome> outcomes = new LinkedHashMap<>();
+
+    public void add(String imdbID, Outcome outcome) {
+        outcomes.put(imdbID, outcome);
+        if (outcome == Outcome.DELETED || outcome == Outcome.ENABLED) {
+            changed++;
+        }
+    }
+}
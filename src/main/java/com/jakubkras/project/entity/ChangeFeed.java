@@ -0,0 +1,29 @@
+package com.jakubkras.project.entity;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Page of the Movie change feed")
+public class ChangeFeed {
+
+    @JsonProperty("changes")
+    @Schema(description = "Changes after the requested cursor, oldest first")
+    private List<MovieChange> changes;
+
+    @JsonProperty("next")
+    @Schema(description = "Cursor to pass as 'since' in the next request", example = "815")
+    private long next;
+
+    @JsonProperty("has_more")
+    @Schema(description = "Shows, if more changes are available right away")
+    private boolean hasMore;
+}
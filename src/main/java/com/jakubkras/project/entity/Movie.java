@@ -7,14 +7,22 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
-import jakarta.validation.constraints.Pattern;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Entity
 @Getter
@@ -30,6 +38,8 @@ import java.util.List;
 )
 public class Movie {
 
+    private static final Pattern YEAR = Pattern.compile("\\d{4}");
+
     @Id
     @JsonIgnore
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -50,11 +60,22 @@ public class Movie {
     @Schema(description = "Release year of Movie", example = "2022")
     private String releaseYear;
 
+    @JsonIgnore
+    private Integer releaseYearNumber;
+
     @JsonAlias("Genre")
     @JsonProperty("Category")
     @Schema(description = "Category of Movie", example = "Sci-Fi")
     private String genre;
 
+    @JsonIgnore
+    @ElementCollection
+    @CollectionTable(name = "movie_genre",
+            joinColumns = @JoinColumn(name = "movie_id"),
+            indexes = @Index(name = "idx_movie_genre_genre", columnList = "genre, movie_id"))
+    @Column(name = "genre", nullable = false)
+    private Set<String> genres = new LinkedHashSet<>();
+
     @JsonProperty("Plot")
     @Schema(description = "Short description of Movie", example = "Rare book dealers Joel and Garda take a summertime jaunt to the seashore where he becomes involved in a beauty pageant as investor and judge - much to her chagrin")
     private String plot;
@@ -64,6 +85,15 @@ public class Movie {
     @Schema(description = "Rating list of Movies")
     private List<Rating> ratings;
 
+    @ColumnDefault("0")
+    @JsonProperty(value = "rating_count", access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Number of Ratings with a numeric score")
+    private int ratingCount;
+
+    @JsonProperty(value = "rating_average", access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Average Rating score on a 0-100 scale", example = "86.0")
+    private Double ratingAverage;
+
     @JsonProperty("Awards")
     @Schema(description = "Awards the Movie received", example = "Won 6 Oscars. 69 wins & 30 nominations total")
     private String awards;
@@ -74,6 +104,7 @@ public class Movie {
     private boolean isUpdated= false;
 
 
+    @Transient
     @JsonProperty("is_deleted")
     @Schema(description = "Shows, if the Movie has been deleted")
     private boolean isDeleted= false;
@@ -82,4 +113,61 @@ public class Movie {
     @JsonProperty("previous_title")
     @Schema(description = "Previous title of Movie")
     private String previousTitle;
+
+    @Version
+    @JsonIgnore
+    @ColumnDefault("0")
+    private long version;
+
+    @JsonIgnore
+    private Instant lastModified;
+
+
+    public void touch() {
+        this.lastModified = Instant.now();
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+        this.genres.clear();
+        this.genres.addAll(parseGenres(genre));
+    }
+
+    public void setReleaseYear(String releaseYear) {
+        this.releaseYear = releaseYear;
+        Matcher year = releaseYear != null ? YEAR.matcher(releaseYear) : null;
+        this.releaseYearNumber = year != null && year.find() ? Integer.valueOf(year.group()) : null;
+    }
+
+    public void setRatings(List<Rating> ratings) {
+        this.ratings = ratings;
+        refreshRatingStats();
+    }
+
+    public void recordRating(Rating rating) {
+        if (rating.getScore() == null) {
+            return;
+        }
+        double total = ratingAverage != null ? ratingAverage * ratingCount : 0;
+        ratingCount++;
+        ratingAverage = (total + rating.getScore()) / ratingCount;
+    }
+
+    public void refreshRatingStats() {
+        ratingCount = 0;
+        ratingAverage = null;
+        if (ratings != null) {
+            ratings.forEach(this::recordRating);
+        }
+    }
+
+    public static Set<String> parseGenres(String genre) {
+        if (genre == null) {
+            return new LinkedHashSet<>();
+        }
+        return Arrays.stream(genre.split(","))
+                .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
 }
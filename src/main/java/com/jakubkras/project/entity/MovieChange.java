@@ -0,0 +1,61 @@
+package com.jakubkras.project.entity;
+
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.jakubkras.project.event.MovieChangedEvent;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Getter
+@Setter
+@RequiredArgsConstructor
+@Table(name = "movie_change", indexes = {
+        @Index(name = "idx_movie_change_imdb_id", columnList = "imdb_id"),
+        @Index(name = "idx_movie_change_tx_id", columnList = "tx_id, id"),
+        @Index(name = "idx_movie_change_changed_at", columnList = "changed_at")
+})
+@Schema(description = "Single change of a Movie recorded in the change feed")
+public class MovieChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @JsonIgnore
+    private long id;
+
+    @Column(name = "tx_id", insertable = false, updatable = false)
+    @JsonProperty("cursor")
+    @Schema(description = "Position of the change's transaction in the feed, pass it as 'since' to read changes of later transactions", example = "815")
+    private Long txId;
+
+    @Column(name = "imdb_id", nullable = false, updatable = false)
+    @JsonProperty("imdbID")
+    @Schema(description = "ID of the changed Movie", example = "tt1375666")
+    private String imdbID;
+
+    @Column(updatable = false)
+    @JsonProperty("Title")
+    @Schema(description = "Title of the Movie after the change", example = "Inception")
+    private String title;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    @JsonProperty("type")
+    @Schema(description = "Kind of the change", example = "UPDATED")
+    private MovieChangedEvent.ChangeType type;
+
+    @JsonIgnore
+    @Column(updatable = false)
+    private String origin;
+
+    @Column(nullable = false, updatable = false)
+    @JsonProperty("changed_at")
+    @Schema(description = "Time the change was recorded")
+    private Instant changedAt;
+}
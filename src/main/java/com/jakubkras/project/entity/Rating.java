@@ -10,6 +10,9 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 @Getter
 @Setter
 @RequiredArgsConstructor
@@ -17,6 +20,9 @@ import lombok.Setter;
 @Schema(description = "Schema to hold information about Ratings")
 public class Rating {
 
+    private static final Pattern FRACTION_SCORE = Pattern.compile("^\\s*(\\d+(?:\\.\\d+)?)\\s*/\\s*(\\d+(?:\\.\\d+)?)\\s*$");
+    private static final Pattern PERCENT_SCORE = Pattern.compile("^\\s*(\\d+(?:\\.\\d+)?)\\s*%\\s*$");
+
     @Id
     @JsonIgnore
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,9 +37,34 @@ public class Rating {
     @Schema(description = "Value of the Movie's rating", example = "8.6/10")
     private String value;
 
+    @JsonProperty(value = "Score", access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Value of the Movie's rating normalized to a 0-100 scale", example = "86.0")
+    private Double score;
+
     @ManyToOne
     @JsonIgnore
     @JoinColumn(name = "movie_id", nullable = false)
     private Movie movie;
-    
+
+
+    public void setValue(String value) {
+        this.value = value;
+        this.score = parseScore(value);
+    }
+
+    public static Double parseScore(String value) {
+        if (value == null) {
+            return null;
+        }
+        Matcher fraction = FRACTION_SCORE.matcher(value);
+        if (fraction.matches()) {
+            double scale = Double.parseDouble(fraction.group(2));
+            return scale > 0 ? Double.parseDouble(fraction.group(1)) * 100 / scale : null;
+        }
+        Matcher percent = PERCENT_SCORE.matcher(value);
+        if (percent.matches()) {
+            return Double.parseDouble(percent.group(1));
+        }
+        return null;
+    }
 }
@@ -0,0 +1,18 @@
+package com.jakubkras.project.entity;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+public class SuggestionsErrorResponse extends ErrorResponse {
+
+    private final List<TitleSuggestion> suggestions;
+
+    public SuggestionsErrorResponse(String message, HttpStatus status, LocalDateTime timestamp, String path, List<TitleSuggestion> suggestions) {
+        super(message, status, timestamp, path);
+        this.suggestions = suggestions;
+    }
+}
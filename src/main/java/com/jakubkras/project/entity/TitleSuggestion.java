@@ -0,0 +1,27 @@
+package com.jakubkras.project.entity;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Movie title suggested for a typed prefix")
+public class TitleSuggestion {
+
+    @JsonProperty("imdbID")
+    @Schema(description = "ID of the movie in IMDB", example = "tt1234567")
+    private String imdbID;
+
+    @JsonProperty("Title")
+    @Schema(description = "Current title of the movie", example = "Mickey Mouse")
+    private String title;
+
+    @JsonProperty("rating_count")
+    @Schema(description = "Number of Ratings of the movie, used to rank suggestions", example = "3")
+    private int ratingCount;
+
+}
@@ -0,0 +1,16 @@
+package com.jakubkras.project.event;
+
+public record MovieChangedEvent(String imdbID, String title, ChangeType type, boolean remote) {
+
+    public MovieChangedEvent(String imdbID, String title, ChangeType type) {
+        this(imdbID, title, type, false);
+    }
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED,
+        ENABLED,
+        RATED
+    }
+}
@@ -2,8 +2,12 @@ package com.jakubkras.project.exception;
 
 
 import com.jakubkras.project.entity.ErrorResponse;
+import com.jakubkras.project.entity.SuggestionsErrorResponse;
 import jakarta.validation.ConstraintViolationException;
 import org.apache.coyote.Response;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -24,6 +28,8 @@ import java.util.Map;
 @ControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
+    private static final String UNIQUE_TITLE_INDEX = "uq_movie_title_lower";
+
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<ErrorResponse> handleConstraintViolationException(ConstraintViolationException exception, WebRequest request) {
         Map<String, String> errors = new HashMap<>();
@@ -68,6 +74,19 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         );
     return  new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
+
+    @ExceptionHandler(MovieSuggestionsException.class)
+    public ResponseEntity<ErrorResponse> handleMovieSuggestionsException (MovieSuggestionsException exception, WebRequest webRequest){
+        ErrorResponse errorResponse = new SuggestionsErrorResponse(
+                exception.getMessage(),
+                HttpStatus.NOT_FOUND,
+                LocalDateTime.now(),
+                webRequest.getDescription(false),
+                exception.getSuggestions()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+
     @ExceptionHandler(MovieAlreadyExistsException.class)
     public ResponseEntity<ErrorResponse> handleMovieAlreadyExistException (MovieAlreadyExistsException exception, WebRequest webRequest){
         ErrorResponse errorResponse = new ErrorResponse(
@@ -79,6 +98,59 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
 
     }
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure (OptimisticLockingFailureException exception, WebRequest webRequest){
+        ErrorResponse errorResponse = new ErrorResponse(
+                "Movie was modified concurrently, reload it and try again",
+                HttpStatus.CONFLICT,
+                LocalDateTime.now(),
+                webRequest.getDescription(false)
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolation (DataIntegrityViolationException exception, WebRequest webRequest){
+        String cause = NestedExceptionUtils.getMostSpecificCause(exception).getMessage();
+
+        if (cause == null || !cause.contains(UNIQUE_TITLE_INDEX)) {
+            throw exception;
+        }
+        ErrorResponse errorResponse = new ErrorResponse(
+                "Movie with this title already exists",
+                HttpStatus.CONFLICT,
+                LocalDateTime.now(),
+                webRequest.getDescription(false)
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(OmdbOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleOmdbOverloaded (OmdbOverloadedException exception, WebRequest webRequest){
+        ErrorResponse errorResponse = new ErrorResponse(
+                exception.getMessage(),
+                HttpStatus.SERVICE_UNAVAILABLE,
+                LocalDateTime.now(),
+                webRequest.getDescription(false)
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(RatingsOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleRatingsOverloaded (RatingsOverloadedException exception, WebRequest webRequest){
+        ErrorResponse errorResponse = new ErrorResponse(
+                exception.getMessage(),
+                HttpStatus.SERVICE_UNAVAILABLE,
+                LocalDateTime.now(),
+                webRequest.getDescription(false)
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
     @ExceptionHandler(EmptyValueException.class)
     public ResponseEntity<ErrorResponse> handleEmptyEndpointValue (EmptyValueException exception, WebRequest webRequest){
         ErrorResponse errorResponse = new ErrorResponse(
@@ -0,0 +1,21 @@
+package com.jakubkras.project.exception;
+
+import com.jakubkras.project.entity.TitleSuggestion;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class MovieSuggestionsException extends MovieNotFoundException {
+
+    private final List<TitleSuggestion> suggestions;
+
+    public MovieSuggestionsException(String title, List<TitleSuggestion> suggestions) {
+        super("Movie: " + title + " doesn't exist. Did you mean: "
+                + suggestions.stream().map(TitleSuggestion::getTitle).collect(Collectors.joining(", ")) + "?");
+        this.suggestions = suggestions;
+    }
+
+    public List<TitleSuggestion> getSuggestions() {
+        return suggestions;
+    }
+}
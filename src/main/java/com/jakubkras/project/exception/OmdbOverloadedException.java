@@ -0,0 +1,7 @@
+package com.jakubkras.project.exception;
+
+public class OmdbOverloadedException extends RuntimeException {
+    public OmdbOverloadedException(String message) {
+        super(message);
+    }
+}
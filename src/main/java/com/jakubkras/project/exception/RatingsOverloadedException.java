@@ -0,0 +1,7 @@
+package com.jakubkras.project.exception;
+
+public class RatingsOverloadedException extends RuntimeException {
+    public RatingsOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,38 @@
+package com.jakubkras.project.repository;
+
+import com.jakubkras.project.entity.ArchivedMovie;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedMovieRepository extends JpaRepository<ArchivedMovie, Integer> {
+
+    List<ArchivedMovie> findByImdbIDIn(Collection<String> imdbIDs);
+
+    @Query("select a.imdbID from ArchivedMovie a where a.imdbID in :imdbIDs")
+    List<String> findImdbIDsByImdbIDIn(@Param("imdbIDs") Collection<String> imdbIDs);
+
+    @Query(value = "SELECT imdb_id AS \"imdbID\", title AS \"title\" FROM movie_archive WHERE imdb_id IN (:imdbIDs) ORDER BY id FOR UPDATE",
+            nativeQuery = true)
+    List<MovieTitle> lockTitlesByImdbIDIn(@Param("imdbIDs") Collection<String> imdbIDs);
+
+    @Modifying
+    @Query(value = "DELETE FROM movie_archive WHERE imdb_id IN (:imdbIDs)", nativeQuery = true)
+    void deleteByImdbIDIn(@Param("imdbIDs") Collection<String> imdbIDs);
+
+    @Query("select a.imdbID, a.title from ArchivedMovie a where a.title is not null")
+    List<Object[]> findImdbIDsAndTitles();
+
+    @Query("select lower(a.title) from ArchivedMovie a where lower(a.title) in :titles")
+    List<String> findLowerTitlesIn(@Param("titles") Collection<String> titles);
+
+    @Query("select count(a) > 0 from ArchivedMovie a where lower(a.title) = lower(:title)")
+    boolean existsByTitleIgnoreCase(@Param("title") String title);
+
+    boolean existsByImdbID(String imdbID);
+
+}
@@ -0,0 +1,38 @@
+package com.jakubkras.project.repository;
+
+import com.jakubkras.project.entity.MovieChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface MovieChangeRepository extends JpaRepository<MovieChange, Long> {
+
+    @Query(value = """
+            SELECT c.* FROM movie_change c
+            WHERE c.tx_id > :since
+              AND c.tx_id < pg_snapshot_xmin(pg_current_snapshot())::text::bigint
+            ORDER BY c.tx_id, c.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<MovieChange> findAfter(@Param("since") long since, @Param("limit") int limit);
+
+    List<MovieChange> findByTxIdOrderById(Long txId);
+
+    @Query(value = "SELECT 1 FROM pg_notify(:channel, :payload)", nativeQuery = true)
+    Integer notifyChannel(@Param("channel") String channel, @Param("payload") String payload);
+
+    @Query(value = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint - 1", nativeQuery = true)
+    long findLastCompletedTxId();
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM movie_change
+            WHERE id IN (SELECT id FROM movie_change WHERE changed_at < :before ORDER BY id LIMIT :limit)
+            """, nativeQuery = true)
+    int deleteChangedBefore(@Param("before") Instant before, @Param("limit") int limit);
+
+}
@@ -2,28 +2,159 @@ package com.jakubkras.project.repository;
 
 import com.jakubkras.project.entity.Movie;
 import com.jakubkras.project.entity.QueryResults;
+import com.jakubkras.project.entity.TitleSuggestion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface MovieRepository extends JpaRepository<Movie, Integer> {
 
-    List<Movie> findByTitleContainingIgnoreCaseAndIsDeletedFalse(String title);
+    List<Movie> findByTitleContainingIgnoreCase(String title);
 
-    Optional<Movie> findByTitleIgnoreCaseAndIsDeletedTrue(String title);
+    List<Movie> findDistinctByTitleContainingIgnoreCaseAndGenresIn(String title, Collection<String> genres);
 
-    Optional<Movie> findByTitleContainingIgnoreCaseAndIsDeletedTrue(String title);
+    @Query("select distinct m from Movie m left join fetch m.ratings")
+    List<Movie> findAllLiveWithRatings();
 
-    Optional<Movie> findByTitleIgnoreCaseAndIsDeletedFalse (String title);
+    @Query("select distinct m from Movie m left join fetch m.ratings where m.imdbID in :imdbIDs")
+    List<Movie> findWithRatingsByImdbIDIn(@Param("imdbIDs") Collection<String> imdbIDs);
 
-    Optional<Movie> findByImdbIDAndIsDeletedFalse(String imdbID);
+    @Query("select m.imdbID from Movie m where m.imdbID in :imdbIDs")
+    List<String> findImdbIDsByImdbIDIn(@Param("imdbIDs") Collection<String> imdbIDs);
 
-    Optional<Movie> findByImdbIDAndIsDeletedTrue(String imdbID);
+    @Query(value = "SELECT id FROM movie WHERE imdb_id IN (:imdbIDs) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Integer> lockIdsByImdbIDIn(@Param("imdbIDs") Collection<String> imdbIDs);
 
-    boolean existsByTitleIgnoreCase (String title);
+    @Query(value = """
+            INSERT INTO movie_archive (imdb_id, title, version, archived_at, payload)
+            SELECT m.imdb_id, m.title, m.version + 1, now(),
+                   jsonb_build_object(
+                       'imdbID', m.imdb_id,
+                       'Title', m.title,
+                       'Released', m.release_year,
+                       'Category', m.genre,
+                       'Plot', m.plot,
+                       'Awards', m.awards,
+                       'is_updated', m.is_updated,
+                       'is_deleted', true,
+                       'previous_title', m.previous_title,
+                       'Ratings', coalesce((SELECT jsonb_agg(jsonb_build_object('Source', r.source, 'Value', r.value) ORDER BY r.rating_id)
+                                            FROM rating r WHERE r.movie_id = m.id), '[]'::jsonb))
+            FROM movie m
+            WHERE m.id IN (:ids)
+            RETURNING imdb_id AS "imdbID", title AS "title"
+            """, nativeQuery = true)
+    List<MovieTitle> copyToArchiveByIdIn(@Param("ids") Collection<Integer> ids);
 
-    boolean existsByImdbIDAndIsDeletedFalse(String imdbId);
+    @Query(value = """
+            INSERT INTO movie (imdb_id, title, release_year, release_year_number, genre, plot, awards, is_updated, previous_title,
+                               rating_count, version, last_modified)
+            SELECT a.imdb_id, a.title, a.payload ->> 'Released', CAST(substring(a.payload ->> 'Released' FROM '[0-9][0-9][0-9][0-9]') AS integer),
+                   a.payload ->> 'Category', a.payload ->> 'Plot', a.payload ->> 'Awards',
+                   coalesce(CAST(a.payload ->> 'is_updated' AS boolean), false), a.payload ->> 'previous_title',
+                   0, a.version + 1, now()
+            FROM movie_archive a
+            WHERE a.imdb_id IN (:imdbIDs)
+            RETURNING imdb_id AS "imdbID", title AS "title"
+            """, nativeQuery = true)
+    List<MovieTitle> copyFromArchiveByImdbIDIn(@Param("imdbIDs") Collection<String> imdbIDs);
+
+    // same scale rules as Rating.parseScore
+    @Modifying
+    @Query(value = """
+            INSERT INTO rating (movie_id, source, value, score)
+            SELECT m.id, e.rating ->> 'Source', e.rating ->> 'Value',
+                   CASE WHEN e.rating ->> 'Value' ~ '^\\s*[0-9]+(\\.[0-9]+|)\\s*/\\s*[0-9]*[1-9][0-9]*(\\.[0-9]+|)\\s*$'
+                            THEN CAST(split_part(e.rating ->> 'Value', '/', 1) AS numeric) * 100
+                                 / CAST(split_part(e.rating ->> 'Value', '/', 2) AS numeric)
+                        WHEN e.rating ->> 'Value' ~ '^\\s*[0-9]+(\\.[0-9]+|)\\s*%\\s*$'
+                            THEN CAST(rtrim(trim(e.rating ->> 'Value'), '%') AS numeric)
+                   END
+            FROM movie_archive a
+            JOIN movie m ON m.imdb_id = a.imdb_id
+            CROSS JOIN LATERAL jsonb_array_elements(coalesce(a.payload -> 'Ratings', '[]')) WITH ORDINALITY AS e(rating, ordinal)
+            WHERE a.imdb_id IN (:imdbIDs)
+            ORDER BY m.id, e.ordinal
+            """, nativeQuery = true)
+    void copyRatingsFromArchiveByImdbIDIn(@Param("imdbIDs") Collection<String> imdbIDs);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO movie_genre (movie_id, genre)
+            SELECT DISTINCT m.id, lower(trim(g.name))
+            FROM movie m
+            CROSS JOIN LATERAL unnest(string_to_array(m.genre, ',')) AS g(name)
+            WHERE m.imdb_id IN (:imdbIDs)
+              AND trim(g.name) <> ''
+            """, nativeQuery = true)
+    void insertGenresByImdbIDIn(@Param("imdbIDs") Collection<String> imdbIDs);
+
+    @Modifying
+    @Query(value = """
+            UPDATE movie m
+            SET rating_count = (SELECT count(r.score) FROM rating r WHERE r.movie_id = m.id),
+                rating_average = (SELECT avg(r.score) FROM rating r WHERE r.movie_id = m.id)
+            WHERE m.imdb_id IN (:imdbIDs)
+            """, nativeQuery = true)
+    void refreshRatingStatsByImdbIDIn(@Param("imdbIDs") Collection<String> imdbIDs);
+
+    @Modifying
+    @Query(value = "DELETE FROM rating WHERE movie_id IN (:ids)", nativeQuery = true)
+    void deleteRatingsByMovieIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM movie_genre WHERE movie_id IN (:ids)", nativeQuery = true)
+    void deleteGenresByMovieIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM movie WHERE id IN (:ids)", nativeQuery = true)
+    void deleteByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("select lower(m.title) from Movie m where lower(m.title) in :titles")
+    List<String> findLowerTitlesIn(@Param("titles") Collection<String> titles);
+
+    @Query("select count(m) > 0 from Movie m where lower(m.title) = lower(:title)")
+    boolean existsByTitleIgnoreCase(@Param("title") String title);
+
+    boolean existsByImdbID(String imdbId);
+
+    @Query("select new com.jakubkras.project.entity.TitleSuggestion(m.imdbID, m.title, m.ratingCount) from Movie m where m.title is not null")
+    List<TitleSuggestion> findTitleSuggestions();
+
+    @Query("select new com.jakubkras.project.entity.TitleSuggestion(m.imdbID, m.title, m.ratingCount) from Movie m where m.imdbID = :imdbID and m.title is not null")
+    Optional<TitleSuggestion> findTitleSuggestionByImdbID(@Param("imdbID") String imdbID);
+
+    @Query("select m.imdbID, m.previousTitle from Movie m where m.previousTitle is not null")
+    List<Object[]> findImdbIDsAndPreviousTitles();
+
+    @Query("select m.previousTitle from Movie m where m.imdbID = :imdbID and m.previousTitle is not null")
+    Optional<String> findPreviousTitleByImdbID(@Param("imdbID") String imdbID);
+
+    @Query(value = """
+            SELECT m.* FROM movie m
+            WHERE m.search_vector @@ websearch_to_tsquery('english', :query)
+              AND (CAST(:category AS text) IS NULL OR EXISTS (
+                    SELECT 1 FROM movie_genre mg WHERE mg.movie_id = m.id AND mg.genre = CAST(:category AS text)))
+            ORDER BY ts_rank(m.search_vector, websearch_to_tsquery('english', :query)) DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Movie> fullTextSearch(@Param("query") String query, @Param("category") String category, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT m.* FROM movie m
+            WHERE m.rating_average IS NOT NULL
+              AND (CAST(:year AS integer) IS NULL OR m.release_year_number = CAST(:year AS integer))
+              AND (CAST(:genre AS text) IS NULL OR EXISTS (
+                    SELECT 1 FROM movie_genre mg WHERE mg.movie_id = m.id AND mg.genre = CAST(:genre AS text)))
+            ORDER BY m.rating_average DESC, m.rating_count DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Movie> findTopRated(@Param("genre") String genre, @Param("year") Integer year, @Param("limit") int limit);
 
 }
@@ -0,0 +1,8 @@
+package com.jakubkras.project.repository;
+
+public interface MovieTitle {
+
+    String getImdbID();
+
+    String getTitle();
+}
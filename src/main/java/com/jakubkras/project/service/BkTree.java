@@ -0,0 +1,132 @@
+package com.jakubkras.project.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Burkhard-Keller trees over normalized titles using Levenshtein distance, one per key length, since keys whose
+ * lengths differ by more than the allowed distance can never match. Keys are never removed, callers skip keys that
+ * no longer have live movies and rebuild the tree once too many of them pile up.
+ */
+class BkTree {
+
+    private static class Node {
+        private final String key;
+        private final Map<Integer, Node> children = new HashMap<>(4);
+        private int maxChildDistance;
+
+        private Node(String key) {
+            this.key = key;
+        }
+    }
+
+    private final Map<Integer, Node> roots = new HashMap<>();
+    private int size;
+
+    boolean add(String key) {
+        Node node = roots.get(key.length());
+
+        if (node == null) {
+            roots.put(key.length(), new Node(key));
+            size++;
+            return true;
+        }
+
+        while (true) {
+            int distance = distance(key, node.key, Integer.MAX_VALUE);
+
+            if (distance == 0) {
+                return false;
+            }
+            Node child = node.children.get(distance);
+
+            if (child == null) {
+                node.children.put(distance, new Node(key));
+                node.maxChildDistance = Math.max(node.maxChildDistance, distance);
+                size++;
+                return true;
+            }
+            node = child;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void search(String key, int maxDistance, ObjIntConsumer<String> matches) {
+        Deque<Node> pending = new ArrayDeque<>();
+
+        for (int length = key.length() - maxDistance; length <= key.length() + maxDistance; length++) {
+            Node root = roots.get(length);
+            if (root != null) {
+                pending.push(root);
+            }
+        }
+
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = distance(key, node.key, node.maxChildDistance + maxDistance);
+
+            if (distance <= maxDistance) {
+                matches.accept(node.key, distance);
+            }
+            node.children.forEach((childDistance, child) -> {
+                if (Math.abs(childDistance - distance) <= maxDistance) {
+                    pending.push(child);
+                }
+            });
+        }
+    }
+
+    /**
+     * Levenshtein distance, or any value above {@code limit} once the distance is known to exceed it. Only the band of
+     * cells within {@code limit} of the diagonal is computed.
+     */
+    static int distance(String first, String second, int limit) {
+        int lengthDifference = Math.abs(first.length() - second.length());
+        if (lengthDifference > limit) {
+            return lengthDifference;
+        }
+
+        int outside = limit == Integer.MAX_VALUE ? limit : limit + 1;
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+
+        for (int j = 0; j <= second.length(); j++) {
+            previous[j] = j <= limit ? j : outside;
+        }
+
+        for (int i = 1; i <= first.length(); i++) {
+            int from = Math.max(1, i - limit);
+            int to = (int) Math.min(second.length(), (long) i + limit);
+            current[0] = i <= limit ? i : outside;
+            int rowMinimum = current[0];
+
+            if (from > 1) {
+                current[from - 1] = outside;
+            }
+            char c = first.charAt(i - 1);
+
+            for (int j = from; j <= to; j++) {
+                int substitution = previous[j - 1] + (c == second.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (to < second.length()) {
+                current[to + 1] = outside;
+            }
+            if (rowMinimum > limit) {
+                return outside;
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[second.length()];
+    }
+}
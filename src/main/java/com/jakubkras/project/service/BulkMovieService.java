@@ -0,0 +1,127 @@
+package com.jakubkras.project.service;
+
+import com.jakubkras.project.entity.BulkResult;
+import com.jakubkras.project.event.MovieChangedEvent;
+import com.jakubkras.project.repository.ArchivedMovieRepository;
+import com.jakubkras.project.repository.MovieRepository;
+import com.jakubkras.project.repository.MovieTitle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class BulkMovieService {
+
+    private final MovieRepository movieRepository;
+    private final ArchivedMovieRepository archivedMovieRepository;
+    private final MovieArchiveService movieArchiveService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    @Autowired
+    public BulkMovieService(MovieRepository movieRepository, ArchivedMovieRepository archivedMovieRepository,
+                            MovieArchiveService movieArchiveService, ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${movies.bulk.chunk-size:500}") int chunkSize) {
+        this.movieRepository = movieRepository;
+        this.archivedMovieRepository = archivedMovieRepository;
+        this.movieArchiveService = movieArchiveService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkResult deleteMovies(List<String> imdbIDs) {
+        BulkResult result = new BulkResult();
+
+        for (List<String> chunk : chunks(imdbIDs)) {
+            transactionTemplate.executeWithoutResult(transaction -> {
+                List<MovieTitle> movies = movieArchiveService.archiveByIds(movieRepository.lockIdsByImdbIDIn(chunk));
+                movies.forEach(movie -> eventPublisher.publishEvent(
+                        new MovieChangedEvent(movie.getImdbID(), movie.getTitle(), MovieChangedEvent.ChangeType.DELETED)));
+
+                Set<String> deleted = movies.stream().map(MovieTitle::getImdbID).collect(Collectors.toSet());
+                Set<String> alreadyDeleted = deleted.size() == chunk.size()
+                        ? Set.of()
+                        : new HashSet<>(archivedMovieRepository.findImdbIDsByImdbIDIn(chunk));
+
+                for (String imdbID : chunk) {
+                    if (deleted.contains(imdbID)) {
+                        result.add(imdbID, BulkResult.Outcome.DELETED);
+                    } else if (alreadyDeleted.contains(imdbID)) {
+                        result.add(imdbID, BulkResult.Outcome.ALREADY_DELETED);
+                    } else {
+                        result.add(imdbID, BulkResult.Outcome.NOT_FOUND);
+                    }
+                }
+            });
+        }
+        return result;
+    }
+
+    public BulkResult enableMovies(List<String> imdbIDs) {
+        BulkResult result = new BulkResult();
+
+        for (List<String> chunk : chunks(imdbIDs)) {
+            transactionTemplate.executeWithoutResult(transaction -> {
+                Map<String, String> archivedTitles = new HashMap<>();
+                archivedMovieRepository.lockTitlesByImdbIDIn(chunk)
+                        .forEach(archivedMovie -> archivedTitles.put(archivedMovie.getImdbID(), titleKey(archivedMovie.getTitle())));
+
+                Set<String> usedTitles = archivedTitles.isEmpty()
+                        ? new HashSet<>()
+                        : new HashSet<>(movieRepository.findLowerTitlesIn(new HashSet<>(archivedTitles.values())));
+
+                Set<String> alreadyEnabled = archivedTitles.size() == chunk.size()
+                        ? Set.of()
+                        : new HashSet<>(movieRepository.findImdbIDsByImdbIDIn(chunk));
+
+                List<String> restorable = new ArrayList<>();
+                for (String imdbID : chunk) {
+                    String titleKey = archivedTitles.get(imdbID);
+
+                    if (titleKey == null) {
+                        result.add(imdbID, alreadyEnabled.contains(imdbID) ? BulkResult.Outcome.ALREADY_ENABLED : BulkResult.Outcome.NOT_FOUND);
+                    } else if (!usedTitles.add(titleKey)) {
+                        result.add(imdbID, BulkResult.Outcome.TITLE_CONFLICT);
+                    } else {
+                        restorable.add(imdbID);
+                        result.add(imdbID, BulkResult.Outcome.ENABLED);
+                    }
+                }
+
+                movieArchiveService.restoreByImdbIDs(restorable).forEach(movie -> eventPublisher.publishEvent(
+                        new MovieChangedEvent(movie.getImdbID(), movie.getTitle(), MovieChangedEvent.ChangeType.ENABLED)));
+            });
+        }
+        return result;
+    }
+
+    private String titleKey(String title) {
+        return title != null ? title.toLowerCase(Locale.ROOT) : "";
+    }
+
+    private List<List<String>> chunks(List<String> imdbIDs) {
+        List<String> distinctIDs = new ArrayList<>(new LinkedHashSet<>(imdbIDs));
+        List<List<String>> chunks = new ArrayList<>();
+
+        for (int from = 0; from < distinctIDs.size(); from += chunkSize) {
+            chunks.add(distinctIDs.subList(from, Math.min(from + chunkSize, distinctIDs.size())));
+        }
+        return chunks;
+    }
+}
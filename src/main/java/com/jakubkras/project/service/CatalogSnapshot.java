@@ -0,0 +1,118 @@
+package com.jakubkras.project.service;
+
+import com.jakubkras.project.entity.Movie;
+import com.jakubkras.project.entity.Rating;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public final class CatalogSnapshot {
+
+    public record CatalogRating(String source, String value) {
+    }
+
+    public record CatalogMovie(int id, String imdbID, String title, String releaseYear, String genre, String[] genres,
+                               String plot, String awards, CatalogRating[] ratings, boolean isUpdated,
+                               String previousTitle, long version, Instant lastModified) {
+
+        public Movie toMovie() {
+            Movie movie = new Movie();
+            movie.setId(id);
+            movie.setImdbID(imdbID);
+            movie.setTitle(title);
+            movie.setReleaseYear(releaseYear);
+            movie.setGenre(genre);
+            movie.setPlot(plot);
+            movie.setAwards(awards);
+            movie.setUpdated(isUpdated);
+            movie.setDeleted(false);
+            movie.setPreviousTitle(previousTitle);
+            movie.setVersion(version);
+            movie.setLastModified(lastModified);
+
+            List<Rating> movieRatings = new ArrayList<>(ratings.length);
+            for (CatalogRating catalogRating : ratings) {
+                Rating rating = new Rating();
+                rating.setSource(catalogRating.source());
+                rating.setValue(catalogRating.value());
+                rating.setMovie(movie);
+                movieRatings.add(rating);
+            }
+            movie.setRatings(movieRatings);
+            return movie;
+        }
+    }
+
+    private final long version;
+    private final int[] ids;
+    private final CatalogMovie[] moviesById;
+    private final Map<String, CatalogMovie> byImdbID;
+    private final Map<String, CatalogMovie> byTitle;
+    private final Map<String, String> archivedTitlesByImdbID;
+    private final Set<String> archivedTitles;
+
+    CatalogSnapshot(long version, Collection<CatalogMovie> movies, Map<String, String> archivedTitlesByImdbID) {
+        this.version = version;
+        this.moviesById = movies.stream().sorted(Comparator.comparingInt(CatalogMovie::id)).toArray(CatalogMovie[]::new);
+        this.ids = Arrays.stream(moviesById).mapToInt(CatalogMovie::id).toArray();
+
+        Map<String, CatalogMovie> imdbIDs = new HashMap<>(movies.size() * 2);
+        Map<String, CatalogMovie> titles = new HashMap<>(movies.size() * 2);
+        for (CatalogMovie movie : moviesById) {
+            imdbIDs.put(movie.imdbID(), movie);
+            if (movie.title() != null) {
+                titles.put(titleKey(movie.title()), movie);
+            }
+        }
+        this.byImdbID = Map.copyOf(imdbIDs);
+        this.byTitle = Map.copyOf(titles);
+        this.archivedTitlesByImdbID = Map.copyOf(archivedTitlesByImdbID);
+        this.archivedTitles = Set.copyOf(archivedTitlesByImdbID.values());
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return moviesById.length;
+    }
+
+    public Optional<CatalogMovie> findById(int id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? Optional.of(moviesById[index]) : Optional.empty();
+    }
+
+    public Optional<CatalogMovie> findByImdbID(String imdbID) {
+        return Optional.ofNullable(byImdbID.get(imdbID));
+    }
+
+    public Optional<CatalogMovie> findByTitle(String title) {
+        return title == null ? Optional.empty() : Optional.ofNullable(byTitle.get(titleKey(title)));
+    }
+
+    public boolean isArchivedTitle(String title) {
+        return title != null && archivedTitles.contains(titleKey(title));
+    }
+
+    Collection<CatalogMovie> movies() {
+        return byImdbID.values();
+    }
+
+    Map<String, String> archivedTitlesByImdbID() {
+        return archivedTitlesByImdbID;
+    }
+
+    static String titleKey(String title) {
+        return title.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,224 @@
+package com.jakubkras.project.service;
+
+import com.jakubkras.project.entity.Movie;
+import com.jakubkras.project.event.MovieChangedEvent;
+import com.jakubkras.project.repository.ArchivedMovieRepository;
+import com.jakubkras.project.repository.MovieRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class CatalogSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private final MovieRepository movieRepository;
+    private final ArchivedMovieRepository archivedMovieRepository;
+    private final TransactionTemplate snapshotTransactionTemplate;
+    private final boolean enabled;
+    private final long debounceMillis;
+    private final ConcurrentMap<String, Long> changed = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Long> changedTitles = new ConcurrentHashMap<>();
+    private final AtomicLong changeSequence = new AtomicLong();
+    private final AtomicBoolean applyScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService applier =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("catalog-snapshot").daemon().factory());
+
+    private volatile CatalogSnapshot snapshot;
+
+    @Autowired
+    public CatalogSnapshotService(MovieRepository movieRepository, ArchivedMovieRepository archivedMovieRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${movies.catalog.snapshot.enabled:false}") boolean enabled,
+                                  @Value("${movies.catalog.snapshot.debounce:50ms}") Duration debounce) {
+        this.movieRepository = movieRepository;
+        this.archivedMovieRepository = archivedMovieRepository;
+        // not read-only, so it stays on the primary: a replica may not have replayed the commit behind the change yet
+        this.snapshotTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTransactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.enabled = enabled;
+        this.debounceMillis = debounce.toMillis();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        applier.shutdownNow();
+    }
+
+    // a key with a pending change is answered from the database until the next snapshot covers it
+    public Optional<CatalogSnapshot> forImdbID(String imdbID) {
+        return changed.containsKey(imdbID) ? Optional.empty() : Optional.ofNullable(snapshot);
+    }
+
+    public Optional<CatalogSnapshot> forTitle(String title) {
+        if (title == null || changedTitles.containsKey(CatalogSnapshot.titleKey(title))) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(snapshot);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        long startSequence = changeSequence.get();
+
+        snapshot = snapshotTransactionTemplate.execute(transaction -> {
+            Map<String, String> interned = new HashMap<>();
+            List<CatalogSnapshot.CatalogMovie> movies = movieRepository.findAllLiveWithRatings().stream()
+                    .map(movie -> toCatalogMovie(movie, interned))
+                    .toList();
+
+            Map<String, String> archivedTitles = new HashMap<>();
+            archivedMovieRepository.findImdbIDsAndTitles().forEach(row -> indexArchived(archivedTitles, (String) row[0], (String) row[1]));
+
+            long version = snapshot != null ? snapshot.version() + 1 : 0;
+            return new CatalogSnapshot(version, movies, archivedTitles);
+        });
+
+        changed.values().removeIf(sequence -> sequence <= startSequence);
+        changedTitles.values().removeIf(sequence -> sequence <= startSequence);
+
+        if (!changed.isEmpty()) {
+            scheduleApply();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        long sequence = changeSequence.incrementAndGet();
+        changed.put(event.imdbID(), sequence);
+
+        if (event.title() != null) {
+            changedTitles.put(CatalogSnapshot.titleKey(event.title()), sequence);
+        }
+
+        CatalogSnapshot current = snapshot;
+        if (current != null) {
+            current.findByImdbID(event.imdbID())
+                    .filter(movie -> movie.title() != null)
+                    .ifPresent(movie -> changedTitles.put(CatalogSnapshot.titleKey(movie.title()), sequence));
+
+            String archivedTitle = current.archivedTitlesByImdbID().get(event.imdbID());
+            if (archivedTitle != null) {
+                changedTitles.put(archivedTitle, sequence);
+            }
+        }
+
+        scheduleApply();
+    }
+
+    private void scheduleApply() {
+        if (applyScheduled.compareAndSet(false, true)) {
+            applier.schedule(this::applyChanges, debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void applyChanges() {
+        applyScheduled.set(false);
+        Map<String, Long> titleBatch = Map.copyOf(changedTitles);
+        Map<String, Long> batch = Map.copyOf(changed);
+        CatalogSnapshot current = snapshot;
+
+        if (batch.isEmpty() || current == null) {
+            return;
+        }
+
+        try {
+            snapshot = snapshotTransactionTemplate.execute(transaction -> {
+                Map<String, String> interned = new HashMap<>();
+                Map<String, CatalogSnapshot.CatalogMovie> movies = new HashMap<>(current.size() * 2);
+
+                for (CatalogSnapshot.CatalogMovie movie : current.movies()) {
+                    if (!batch.containsKey(movie.imdbID())) {
+                        movies.put(movie.imdbID(), movie);
+                        retain(movie, interned);
+                    }
+                }
+                movieRepository.findWithRatingsByImdbIDIn(batch.keySet())
+                        .forEach(movie -> movies.put(movie.getImdbID(), toCatalogMovie(movie, interned)));
+
+                Map<String, String> archivedTitles = new HashMap<>(current.archivedTitlesByImdbID());
+                batch.keySet().forEach(archivedTitles::remove);
+                archivedMovieRepository.findByImdbIDIn(batch.keySet())
+                        .forEach(archivedMovie -> indexArchived(archivedTitles, archivedMovie.getImdbID(), archivedMovie.getTitle()));
+
+                return new CatalogSnapshot(current.version() + 1, movies.values(), archivedTitles);
+            });
+
+            batch.forEach(changed::remove);
+            titleBatch.forEach(changedTitles::remove);
+        } catch (RuntimeException e) {
+            log.warn("Catalog snapshot update for {} movies failed, retrying in {} ms", batch.size(), debounceMillis, e);
+        }
+
+        if (!changed.isEmpty()) {
+            scheduleApply();
+        }
+    }
+
+    private static void indexArchived(Map<String, String> archivedTitles, String imdbID, String title) {
+        if (title != null) {
+            archivedTitles.put(imdbID, CatalogSnapshot.titleKey(title));
+        }
+    }
+
+    private static CatalogSnapshot.CatalogMovie toCatalogMovie(Movie movie, Map<String, String> interned) {
+        String[] genres = Movie.parseGenres(movie.getGenre()).stream().map(genre -> intern(genre, interned)).toArray(String[]::new);
+
+        CatalogSnapshot.CatalogRating[] ratings = movie.getRatings() == null
+                ? new CatalogSnapshot.CatalogRating[0]
+                : movie.getRatings().stream()
+                        .map(rating -> new CatalogSnapshot.CatalogRating(intern(rating.getSource(), interned), rating.getValue()))
+                        .toArray(CatalogSnapshot.CatalogRating[]::new);
+
+        return new CatalogSnapshot.CatalogMovie(movie.getId(), movie.getImdbID(), movie.getTitle(), intern(movie.getReleaseYear(), interned),
+                intern(movie.getGenre(), interned), genres, movie.getPlot(), movie.getAwards(), ratings, movie.isUpdated(),
+                movie.getPreviousTitle(), movie.getVersion(), movie.getLastModified());
+    }
+
+    // seeds the pool of the next snapshot with the strings a kept movie already shares, so the pool never outgrows the catalog
+    private static void retain(CatalogSnapshot.CatalogMovie movie, Map<String, String> interned) {
+        intern(movie.releaseYear(), interned);
+        intern(movie.genre(), interned);
+        for (String genre : movie.genres()) {
+            intern(genre, interned);
+        }
+        for (CatalogSnapshot.CatalogRating rating : movie.ratings()) {
+            intern(rating.source(), interned);
+        }
+    }
+
+    private static String intern(String value, Map<String, String> interned) {
+        return value == null ? null : interned.computeIfAbsent(value, key -> key);
+    }
+}
@@ -0,0 +1,144 @@
+package com.jakubkras.project.service;
+
+import com.jakubkras.project.entity.ChangeFeed;
+import com.jakubkras.project.entity.MovieChange;
+import com.jakubkras.project.event.MovieChangedEvent;
+import com.jakubkras.project.repository.MovieChangeRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+public class ChangeFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeedService.class);
+
+    private static final int RETENTION_BATCH_SIZE = 1000;
+
+    private final MovieChangeRepository movieChangeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxPageSize;
+    private final String channel;
+    private final Duration retention;
+    private final Duration retentionInterval;
+    private final String instanceId = UUID.randomUUID().toString();
+    private volatile boolean running = true;
+    private Thread retentionJob;
+
+    @Autowired
+    public ChangeFeedService(MovieChangeRepository movieChangeRepository, PlatformTransactionManager transactionManager,
+                             @Value("${movies.changes.max-page-size:1000}") int maxPageSize,
+                             @Value("${movies.cluster.channel:movie_changes}") String channel,
+                             @Value("${movies.changes.retention:7d}") Duration retention,
+                             @Value("${movies.changes.retention-interval:1h}") Duration retentionInterval) {
+        this.movieChangeRepository = movieChangeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxPageSize = maxPageSize;
+        this.channel = channel;
+        this.retention = retention;
+        this.retentionInterval = retentionInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRetention() {
+        if (retention.isZero() || retention.isNegative()) {
+            return;
+        }
+        retentionJob = Thread.ofPlatform().name("change-feed-retention").daemon().start(() -> {
+            while (running) {
+                try {
+                    deleteExpired();
+                } catch (RuntimeException e) {
+                    log.warn("Change feed retention failed, retrying in {}", retentionInterval, e);
+                }
+                try {
+                    Thread.sleep(retentionInterval);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (retentionJob != null) {
+            retentionJob.interrupt();
+        }
+    }
+
+    public String instanceId() {
+        return instanceId;
+    }
+
+    public String channel() {
+        return channel;
+    }
+
+    public long lastCursor() {
+        return movieChangeRepository.findLastCompletedTxId();
+    }
+
+    @EventListener(condition = "!#event.remote()")
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void record(MovieChangedEvent event) {
+        MovieChange change = new MovieChange();
+        change.setImdbID(event.imdbID());
+        change.setTitle(event.title());
+        change.setType(event.type());
+        change.setOrigin(instanceId);
+        change.setChangedAt(Instant.now());
+        movieChangeRepository.save(change);
+        movieChangeRepository.notifyChannel(channel, Long.toString(change.getId()));
+    }
+
+    public ChangeFeed changesSince(long since, int limit) {
+        int pageSize = Math.min(limit, maxPageSize);
+        List<MovieChange> changes = movieChangeRepository.findAfter(since, pageSize + 1);
+        boolean hasMore = changes.size() > pageSize;
+
+        if (hasMore) {
+            changes = wholeTransactions(changes, pageSize);
+        }
+        long next = changes.isEmpty() ? since : changes.getLast().getTxId();
+        return new ChangeFeed(changes, next, hasMore);
+    }
+
+    private List<MovieChange> wholeTransactions(List<MovieChange> changes, int pageSize) {
+        Long splitTxId = changes.get(pageSize).getTxId();
+
+        if (changes.getFirst().getTxId().equals(splitTxId)) {
+            return movieChangeRepository.findByTxIdOrderById(splitTxId);
+        }
+
+        int end = pageSize;
+        while (changes.get(end - 1).getTxId().equals(splitTxId)) {
+            end--;
+        }
+        return changes.subList(0, end);
+    }
+
+    private void deleteExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        Integer deleted;
+
+        do {
+            deleted = transactionTemplate.execute(transaction ->
+                    movieChangeRepository.deleteChangedBefore(cutoff, RETENTION_BATCH_SIZE));
+        } while (running && deleted != null && deleted == RETENTION_BATCH_SIZE);
+    }
+}
@@ -0,0 +1,154 @@
+package com.jakubkras.project.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jakubkras.project.entity.ArchivedMovie;
+import com.jakubkras.project.entity.Movie;
+import com.jakubkras.project.repository.ArchivedMovieRepository;
+import com.jakubkras.project.repository.MovieRepository;
+import com.jakubkras.project.repository.MovieTitle;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Service
+public class MovieArchiveService {
+
+    private static final String HAS_DELETED_COLUMN = """
+            SELECT EXISTS (SELECT 1 FROM information_schema.columns
+                           WHERE table_schema = current_schema() AND table_name = 'movie' AND column_name = 'is_deleted')
+            """;
+
+    private static final String LOCK_DELETED_IDS = "SELECT id FROM movie WHERE is_deleted ORDER BY id LIMIT ? FOR UPDATE";
+
+    private final MovieRepository movieRepository;
+    private final ArchivedMovieRepository archivedMovieRepository;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final boolean dropDeletedColumn;
+
+    @Autowired
+    public MovieArchiveService(MovieRepository movieRepository, ArchivedMovieRepository archivedMovieRepository, ObjectMapper objectMapper,
+                               JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               @Value("${movies.bulk.chunk-size:500}") int chunkSize,
+                               @Value("${movies.archive.drop-deleted-column:false}") boolean dropDeletedColumn) {
+        this.movieRepository = movieRepository;
+        this.archivedMovieRepository = archivedMovieRepository;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.dropDeletedColumn = dropDeletedColumn;
+    }
+
+    @Transactional
+    public ArchivedMovie archive(Movie movie) {
+        ArchivedMovie archivedMovie = archivedMovieRepository.save(toArchivedMovie(movie));
+
+        if (movie.getId() != 0) {
+            movieRepository.delete(movie);
+        }
+        return archivedMovie;
+    }
+
+    @Transactional
+    public List<MovieTitle> archiveByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<MovieTitle> archived = movieRepository.copyToArchiveByIdIn(ids);
+
+        movieRepository.deleteRatingsByMovieIdIn(ids);
+        movieRepository.deleteGenresByMovieIdIn(ids);
+        movieRepository.deleteByIdIn(ids);
+        return archived;
+    }
+
+    @Transactional
+    public Movie restore(ArchivedMovie archivedMovie) {
+        Movie movie = toMovie(archivedMovie);
+        movie.setDeleted(false);
+        movie.setVersion(archivedMovie.getVersion() + 1);
+        movie.touch();
+
+        archivedMovieRepository.delete(archivedMovie);
+        movieRepository.save(movie);
+        return movie;
+    }
+
+    @Transactional
+    public List<MovieTitle> restoreByImdbIDs(Collection<String> imdbIDs) {
+        if (imdbIDs.isEmpty()) {
+            return List.of();
+        }
+        List<MovieTitle> restored = movieRepository.copyFromArchiveByImdbIDIn(imdbIDs);
+
+        movieRepository.copyRatingsFromArchiveByImdbIDIn(imdbIDs);
+        movieRepository.insertGenresByImdbIDIn(imdbIDs);
+        movieRepository.refreshRatingStatsByImdbIDIn(imdbIDs);
+        archivedMovieRepository.deleteByImdbIDIn(imdbIDs);
+        return restored;
+    }
+
+    public Movie toMovie(ArchivedMovie archivedMovie) {
+        try {
+            Movie movie = objectMapper.readValue(archivedMovie.getPayload(), Movie.class);
+            if (movie.getRatings() != null) {
+                movie.getRatings().forEach(rating -> rating.setMovie(movie));
+            }
+            movie.setDeleted(true);
+            return movie;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Archived movie with imdbID: " + archivedMovie.getImdbID() + " cannot be read", e);
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void archiveDeletedMovies() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_DELETED_COLUMN, Boolean.class))) {
+            return;
+        }
+
+        int archived;
+        do {
+            archived = transactionTemplate.execute(transaction ->
+                    archiveByIds(jdbcTemplate.queryForList(LOCK_DELETED_IDS, Integer.class, chunkSize)).size());
+        } while (archived == chunkSize);
+
+        if (dropDeletedColumn) {
+            jdbcTemplate.execute("ALTER TABLE movie DROP COLUMN IF EXISTS is_deleted");
+        }
+    }
+
+    private ArchivedMovie toArchivedMovie(Movie movie) {
+        movie.setDeleted(true);
+
+        ArchivedMovie archivedMovie = new ArchivedMovie();
+        archivedMovie.setImdbID(movie.getImdbID());
+        archivedMovie.setTitle(movie.getTitle());
+        archivedMovie.setVersion(movie.getVersion());
+        archivedMovie.setArchivedAt(Instant.now());
+
+        try {
+            archivedMovie.setPayload(objectMapper.writeValueAsString(movie));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Movie with imdbID: " + movie.getImdbID() + " cannot be archived", e);
+        }
+        return archivedMovie;
+    }
+}
@@ -0,0 +1,19 @@
+package com.jakubkras.project.service;
+
+import com.jakubkras.project.entity.ArchivedMovie;
+import com.jakubkras.project.entity.Movie;
+
+public record MovieState(Movie live, ArchivedMovie deleted) {
+
+    public boolean isLive() {
+        return live != null;
+    }
+
+    public boolean isDeleted() {
+        return deleted != null;
+    }
+
+    public boolean exists() {
+        return isLive() || isDeleted();
+    }
+}
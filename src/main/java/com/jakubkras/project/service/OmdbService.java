@@ -1,21 +1,33 @@
 package com.jakubkras.project.service;
 
+import com.jakubkras.project.client.OmdbClient;
+import com.jakubkras.project.config.ReadOnlyTransactional;
+import com.jakubkras.project.entity.ArchivedMovie;
 import com.jakubkras.project.entity.Movie;
+import com.jakubkras.project.event.MovieChangedEvent;
 import com.jakubkras.project.entity.OmdbResponse;
 import com.jakubkras.project.entity.QueryResults;
 import com.jakubkras.project.entity.Rating;
+import com.jakubkras.project.entity.TitleSuggestion;
 import com.jakubkras.project.exception.EmptyValueException;
 import com.jakubkras.project.exception.MovieAlreadyExistsException;
 import com.jakubkras.project.exception.MovieNotFoundException;
+import com.jakubkras.project.exception.MovieSuggestionsException;
 import com.jakubkras.project.exception.NoChangesException;
+import com.jakubkras.project.exception.OmdbOverloadedException;
+import com.jakubkras.project.repository.ArchivedMovieRepository;
 import com.jakubkras.project.repository.MovieRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
+import org.hibernate.query.NativeQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.MethodArgumentNotValidException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.servlet.NoHandlerFoundException;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -23,13 +35,54 @@ import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 @Service
 public class OmdbService {
 
+    private record TitleMatch(Movie live, boolean isDeleted) {
+    }
+
+    @FunctionalInterface
+    private interface MovieWrite<T> {
+        T run() throws MovieNotFoundException;
+    }
+
+    private static final class MovieWriteFailure extends RuntimeException {
+        private MovieWriteFailure(MovieNotFoundException cause) {
+            super(cause);
+        }
+    }
 
-    private final RestTemplate restTemplate;
+    // one round trip for either table: the archive is only read when no live movie holds the key
+    private static final String RESOLVE_BY_IMDB_ID = """
+            SELECT {m.*}, {a.*}
+            FROM (VALUES (CAST(:key AS varchar))) AS k(imdb_id)
+            LEFT JOIN movie m ON m.imdb_id = k.imdb_id
+            LEFT JOIN movie_archive a ON m.id IS NULL AND a.imdb_id = k.imdb_id
+            """;
+
+    private static final String RESOLVE_BY_TITLE = """
+            SELECT {m.*}, {a.*}
+            FROM (VALUES (lower(CAST(:key AS varchar)))) AS k(title)
+            LEFT JOIN LATERAL (SELECT * FROM movie WHERE lower(title) = k.title ORDER BY id LIMIT 1) m ON true
+            LEFT JOIN LATERAL (SELECT * FROM movie_archive WHERE m.id IS NULL AND lower(title) = k.title ORDER BY id LIMIT 1) a ON true
+            """;
+
+    private final OmdbClient omdbClient;
     private final MovieRepository movieRepository;
+    private final ArchivedMovieRepository archivedMovieRepository;
+    private final MovieArchiveService movieArchiveService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TitleSuggestionService titleSuggestionService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final RatingIngestionService ratingIngestionService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final EntityManager entityManager;
 
     @Value("${omdb.api.key}")
     private String apiKey;
@@ -39,34 +92,157 @@ public class OmdbService {
 
 
     @Autowired
-    public OmdbService(RestTemplateBuilder restTemplateBuilder, MovieRepository movieRepository, @Value("${omdb.api.url}") String apiUrl) {
-        this.restTemplate = restTemplateBuilder.build();
+    public OmdbService(OmdbClient omdbClient, MovieRepository movieRepository, ArchivedMovieRepository archivedMovieRepository,
+                       MovieArchiveService movieArchiveService, ApplicationEventPublisher eventPublisher, TitleSuggestionService titleSuggestionService,
+                       CatalogSnapshotService catalogSnapshotService, RatingIngestionService ratingIngestionService,
+                       PlatformTransactionManager transactionManager, EntityManager entityManager,
+                       @Value("${omdb.api.url}") String apiUrl) {
+        this.omdbClient = omdbClient;
         this.movieRepository = movieRepository;
+        this.archivedMovieRepository = archivedMovieRepository;
+        this.movieArchiveService = movieArchiveService;
+        this.eventPublisher = eventPublisher;
+        this.titleSuggestionService = titleSuggestionService;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.ratingIngestionService = ratingIngestionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.entityManager = entityManager;
     }
 
-    public Movie getMovieByTitle(String title) throws MovieNotFoundException {
+    // OMDb calls lease the shared quota on their own connection, so writes fetch first and only then open the transaction
+    private <T> T inWriteTransaction(MovieWrite<T> write) throws MovieNotFoundException {
+        try {
+            return transactionTemplate.execute(transaction -> {
+                try {
+                    return write.run();
+                } catch (MovieNotFoundException e) {
+                    throw new MovieWriteFailure(e);
+                }
+            });
+        } catch (MovieWriteFailure e) {
+            throw (MovieNotFoundException) e.getCause();
+        }
+    }
 
-        List<Movie> matchingMovies = movieRepository.findByTitleContainingIgnoreCaseAndIsDeletedFalse(title);
+    private void publishChange(Movie movie, MovieChangedEvent.ChangeType type) {
+        eventPublisher.publishEvent(new MovieChangedEvent(movie.getImdbID(), movie.getTitle(), type));
+    }
 
-        Optional<Movie> deletedMovie = movieRepository.findByTitleIgnoreCaseAndIsDeletedTrue(title);
+    private MovieState resolveByImdbID(String imdbID) {
+        return resolve(RESOLVE_BY_IMDB_ID, imdbID);
+    }
+
+    private MovieState resolveByTitle(String title) {
+        return resolve(RESOLVE_BY_TITLE, title);
+    }
+
+    private MovieState resolve(String sql, String key) {
+        NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        List<?> rows = query.addEntity("m", Movie.class)
+                .addEntity("a", ArchivedMovie.class)
+                .setParameter("key", key)
+                .getResultList();
+
+        if (rows.isEmpty()) {
+            return new MovieState(null, null);
+        }
+        Object[] row = (Object[]) rows.getFirst();
+        return new MovieState((Movie) row[0], (ArchivedMovie) row[1]);
+    }
 
-        if (deletedMovie.isPresent()) {
+    @ReadOnlyTransactional
+    public Movie getMovieByImdbID(String imdbID) throws MovieNotFoundException {
+        Optional<CatalogSnapshot.CatalogMovie> cached = catalogSnapshotService.forImdbID(imdbID).flatMap(catalog -> catalog.findByImdbID(imdbID));
+
+        if (cached.isPresent()) {
+            return cached.get().toMovie();
+        }
+
+        MovieState state = resolveByImdbID(imdbID);
+
+        if (state.isLive()) {
+            return state.live();
+        }
+        if (state.isDeleted()) {
+            return movieArchiveService.toMovie(state.deleted());
+        }
+        throw new MovieNotFoundException("Movie with imdbID: " + imdbID + " doesn't exist");
+    }
+
+    public Movie getMovieByTitle(String title) throws MovieNotFoundException {
+        TitleMatch match = lookupByTitle(title);
+
+        if (match.isDeleted()) {
             throw new MovieNotFoundException("Movie: " + title + " is deleted");
         }
 
-        if (!matchingMovies.isEmpty()) {
-            return matchingMovies.get(0);
+        if (match.live() != null) {
+            return match.live();
+        }
+
+        List<TitleSuggestion> suggestions = titleSuggestionService.didYouMean(title);
+
+        if (!suggestions.isEmpty()) {
+            throw new MovieSuggestionsException(title, suggestions);
         }
 
         Movie omdbMovie = fetchFromOmdb(title);
 
-        if (omdbMovie != null && matchingMovies.isEmpty()) {
+        if (omdbMovie != null) {
             return omdbMovie;
         }
 
         throw new MovieNotFoundException("Movie: " + title + " doesn't exist");
     }
 
+    private TitleMatch lookupByTitle(String title) {
+        Optional<CatalogSnapshot> catalog = catalogSnapshotService.forTitle(title);
+
+        if (catalog.isPresent()) {
+            if (catalog.get().isArchivedTitle(title)) {
+                return new TitleMatch(null, true);
+            }
+            Optional<CatalogSnapshot.CatalogMovie> cached = catalog.get().findByTitle(title);
+
+            if (cached.isPresent()) {
+                return new TitleMatch(cached.get().toMovie(), false);
+            }
+        }
+
+        return readOnlyTransactionTemplate.execute(transaction -> {
+            if (catalog.isEmpty() && archivedMovieRepository.existsByTitleIgnoreCase(title)) {
+                return new TitleMatch(null, true);
+            }
+            return new TitleMatch(movieRepository.findByTitleContainingIgnoreCase(title).stream().findFirst().orElse(null), false);
+        });
+    }
+
+    private Set<String> archivedTitles(List<QueryResults> omdbMovies) {
+        List<String> titles = omdbMovies.stream()
+                .map(QueryResults::getTitle)
+                .filter(Objects::nonNull)
+                .map(title -> title.toLowerCase(Locale.ROOT))
+                .toList();
+
+        if (titles.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(readOnlyTransactionTemplate.execute(transaction -> archivedMovieRepository.findLowerTitlesIn(titles)));
+    }
+
+    private List<QueryResults> notInDb(List<QueryResults> omdbMovies, List<Movie> dbMovies) {
+        List<QueryResults> candidates = omdbMovies.stream()
+                .filter(omdbMovie -> dbMovies.stream().noneMatch(dbmov -> dbmov.getTitle().equalsIgnoreCase(omdbMovie.getTitle())))
+                .toList();
+        Set<String> archived = archivedTitles(candidates);
+
+        return candidates.stream()
+                .filter(omdbMovie -> omdbMovie.getTitle() == null || !archived.contains(omdbMovie.getTitle().toLowerCase(Locale.ROOT)))
+                .toList();
+    }
+
     private Movie fetchFromOmdb(String title) {
         try {
             String encodedTitle = URLEncoder.encode(title, StandardCharsets.UTF_8);
@@ -76,12 +252,14 @@ public class OmdbService {
                     .queryParam("apikey", apiKey)
                     .toUriString();
 
-            Movie movie = restTemplate.getForObject(url, Movie.class);
+            Movie movie = omdbClient.get(url, Movie.class);
 
             if (movie != null && movie.getTitle() != null && !movie.getTitle().trim().isEmpty()) {
                 return movie;
             }
             return null;
+        } catch (OmdbOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Title: " + title + " not found", e);
         }
@@ -91,12 +269,12 @@ public class OmdbService {
     public List<QueryResults> searchMovieByQuery(String query) throws MovieNotFoundException {
         List<QueryResults> finalResults = new ArrayList<>();
 
-        List<Movie> dbMovies = movieRepository.findByTitleContainingIgnoreCaseAndIsDeletedFalse(query);
-
         if (query.isEmpty()){
             throw new EmptyValueException("Endpoint value cannot be empty");
         }
 
+        List<Movie> dbMovies = readOnlyTransactionTemplate.execute(transaction -> movieRepository.findByTitleContainingIgnoreCase(query));
+
         for (Movie movie : dbMovies) {
             QueryResults queryResults = new QueryResults();
             queryResults.setTitle(movie.getTitle());
@@ -109,24 +287,85 @@ public class OmdbService {
                 .queryParam("apikey", apiKey)
                 .toUriString();
 
-        OmdbResponse omdbResponse = restTemplate.getForObject(url, OmdbResponse.class);
+        OmdbResponse omdbResponse = omdbClient.get(url, OmdbResponse.class);
 
         if (omdbResponse != null && omdbResponse.getSearch() != null) {
-            for (QueryResults omdbMovie : omdbResponse.getSearch()) {
+            for (QueryResults omdbMovie : notInDb(omdbResponse.getSearch(), dbMovies)) {
+                QueryResults detailedMovie = fetchMovieDetails(omdbMovie);
+                finalResults.add(detailedMovie);
+            }
+        }
+        if (finalResults.isEmpty()) {
+            throw new MovieNotFoundException("No movies for this query: " + query);
+        }
+        return finalResults;
+    }
+
+    public int streamMovieByQuery(String query, Consumer<QueryResults> sink) throws MovieNotFoundException {
+
+        if (query == null || query.trim().isEmpty()) {
+            throw new EmptyValueException("Endpoint value cannot be empty");
+        }
+
+        List<Movie> dbMovies = readOnlyTransactionTemplate.execute(transaction -> movieRepository.findByTitleContainingIgnoreCase(query));
+        int sent = 0;
+
+        for (Movie movie : dbMovies) {
+            sink.accept(toQueryResults(movie));
+            sent++;
+        }
 
-                boolean isNotInDb = dbMovies.stream().noneMatch(dbmov -> dbmov.getTitle().equalsIgnoreCase(omdbMovie.getTitle()));
-                boolean isNotDeleted = movieRepository.findByTitleIgnoreCaseAndIsDeletedTrue(omdbMovie.getTitle()).isEmpty();
+        String url = UriComponentsBuilder.fromHttpUrl(apiUrl)
+                .queryParam("s", query)
+                .queryParam("apikey", apiKey)
+                .toUriString();
+
+        OmdbResponse omdbResponse = omdbClient.get(url, OmdbResponse.class);
+
+        if (omdbResponse != null && omdbResponse.getSearch() != null) {
+            CompletionService<QueryResults> details = omdbClient.completionService();
+            List<Future<QueryResults>> submitted = new ArrayList<>();
+
+            for (QueryResults omdbMovie : notInDb(omdbResponse.getSearch(), dbMovies)) {
+                submitted.add(details.submit(() -> {
+                    try {
+                        return fetchMovieDetails(omdbMovie);
+                    } catch (RestClientException e) {
+                        return omdbMovie;
+                    }
+                }));
+            }
 
-                if (isNotDeleted && isNotInDb) {
-                    QueryResults detailedMovie = fetchMovieDetails(omdbMovie);
-                    finalResults.add(detailedMovie);
+            try {
+                for (int pending = submitted.size(); pending > 0; pending--) {
+                    sink.accept(details.take().get());
+                    sent++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Search for query: " + query + " was interrupted", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof OmdbOverloadedException overloaded) {
+                    throw overloaded;
                 }
+                throw new IllegalStateException("Search for query: " + query + " failed", e.getCause());
+            } finally {
+                submitted.forEach(future -> future.cancel(true));
             }
         }
-        if (finalResults.isEmpty()) {
+
+        if (sent == 0) {
             throw new MovieNotFoundException("No movies for this query: " + query);
         }
-        return finalResults;
+        return sent;
+    }
+
+    private QueryResults toQueryResults(Movie movie) {
+        QueryResults queryResults = new QueryResults();
+        queryResults.setTitle(movie.getTitle());
+        queryResults.setImdbID(movie.getImdbID());
+        queryResults.setPlot(movie.getPlot());
+        return queryResults;
     }
 
     public QueryResults fetchMovieDetails(QueryResults queryResults) {
@@ -137,7 +376,7 @@ public class OmdbService {
                 .queryParam("plot", "short")
                 .toUriString();
 
-        Movie movie = restTemplate.getForObject(url, Movie.class);
+        Movie movie = omdbClient.get(url, Movie.class);
 
         if (movie != null) {
             QueryResults results = new QueryResults();
@@ -149,22 +388,51 @@ public class OmdbService {
         return queryResults;
     }
 
+    @ReadOnlyTransactional
+    public List<QueryResults> fullTextSearch(String query, String category, int limit) throws MovieNotFoundException {
 
+        if (query == null || query.trim().isEmpty()) {
+            throw new EmptyValueException("Endpoint value cannot be empty");
+        }
 
-    @Transactional
-    public Movie deleteMovieByImdbID(String imdbID) throws MovieNotFoundException {
-        Optional<Movie> movieInDatabase = movieRepository.findByImdbIDAndIsDeletedFalse(imdbID);
-        Optional<Movie> deletedMovie = movieRepository.findByImdbIDAndIsDeletedTrue(imdbID);
+        String categoryFilter = category != null && !category.trim().isEmpty() ? category.trim().toLowerCase(Locale.ROOT) : null;
 
-        if (deletedMovie.isPresent()){
-            throw new MovieNotFoundException("Movie with imdbID: " + imdbID + " has been already deleted.");
+        List<QueryResults> results = new ArrayList<>();
+
+        for (Movie movie : movieRepository.fullTextSearch(query, categoryFilter, limit)) {
+            QueryResults queryResults = new QueryResults();
+            queryResults.setTitle(movie.getTitle());
+            queryResults.setImdbID(movie.getImdbID());
+            queryResults.setPlot(movie.getPlot());
+            results.add(queryResults);
         }
 
-        if (movieInDatabase.isPresent()) {
-            Movie movie = movieInDatabase.get();
-            movie.setDeleted(true);
-            movieRepository.save(movie);
-            return movie;
+        if (results.isEmpty()) {
+            throw new MovieNotFoundException("No movies for this query: " + query);
+        }
+        return results;
+    }
+
+    @ReadOnlyTransactional
+    public List<Movie> getTopRated(String genre, Integer year, int limit) throws MovieNotFoundException {
+
+        String genreFilter = genre != null && !genre.trim().isEmpty() ? genre.trim().toLowerCase(Locale.ROOT) : null;
+
+        List<Movie> results = movieRepository.findTopRated(genreFilter, year, limit);
+
+        if (results.isEmpty()) {
+            throw new MovieNotFoundException("Movies not found");
+        }
+        return results;
+    }
+
+
+
+    public Movie deleteMovieByImdbID(String imdbID) throws MovieNotFoundException {
+        Movie archived = inWriteTransaction(() -> archiveExisting(imdbID));
+
+        if (archived != null) {
+            return archived;
         }
 
         String url = UriComponentsBuilder.fromHttpUrl(apiUrl)
@@ -174,7 +442,9 @@ public class OmdbService {
 
         Movie omdbMovie;
         try {
-            omdbMovie = restTemplate.getForObject(url, Movie.class);
+            omdbMovie = omdbClient.get(url, Movie.class);
+        } catch (OmdbOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             throw new MovieNotFoundException("Error fetching movie from external API: " + e.getMessage());
         }
@@ -199,40 +469,76 @@ public class OmdbService {
             movie.setRatings(omdbMovie.getRatings());
         }
 
-        movieRepository.save(movie);
-        return movie;
+        return inWriteTransaction(() -> {
+            Movie existing = archiveExisting(imdbID);
+
+            if (existing != null) {
+                return existing;
+            }
+
+            movie.touch();
+
+            movieArchiveService.archive(movie);
+            publishChange(movie, MovieChangedEvent.ChangeType.DELETED);
+            return movie;
+        });
+    }
+
+    private Movie archiveExisting(String imdbID) throws MovieNotFoundException {
+        MovieState state = resolveByImdbID(imdbID);
+
+        if (state.isDeleted()){
+            throw new MovieNotFoundException("Movie with imdbID: " + imdbID + " has been already deleted.");
+        }
+
+        if (state.isLive()) {
+            Movie movie = state.live();
+            movie.touch();
+            movieArchiveService.archive(movie);
+            publishChange(movie, MovieChangedEvent.ChangeType.DELETED);
+            return movie;
+        }
+        return null;
     }
 
-    @Transactional
     public Movie updateMovieByImdbID(String imdbID, Movie updatedMovieData) throws MovieNotFoundException {
 
         if (updatedMovieData.getTitle() == null || updatedMovieData.getTitle().trim().isEmpty()) {
             throw new EmptyValueException("Title cannot be empty or null");
         }
 
-        Optional<Movie> movieOptional = movieRepository.findByImdbIDAndIsDeletedFalse(imdbID);
-        Optional<Movie> deletedMovie = movieRepository.findByImdbIDAndIsDeletedTrue(imdbID);
-
         Movie omdbMovie = null;
 
-        if (movieOptional.isEmpty() && imdbID.matches("^tt\\d{7}$")) {
+        if (imdbID.matches("^tt\\d{7}$") && !readOnlyTransactionTemplate.execute(transaction -> resolveByImdbID(imdbID)).exists()) {
             String url = UriComponentsBuilder.fromHttpUrl(apiUrl)
                     .queryParam("i", imdbID)
                     .queryParam("apikey", apiKey)
                     .toUriString();
 
             try {
-                omdbMovie = restTemplate.getForObject(url, Movie.class);
+                omdbMovie = omdbClient.get(url, Movie.class);
+            } catch (OmdbOverloadedException e) {
+                throw e;
             } catch (Exception e) {
                 throw new MovieNotFoundException("Error retrieving movie data from OMDb API for imdbID: " + imdbID);
             }
         }
 
-        boolean titleExistInDb = movieRepository.existsByTitleIgnoreCase(updatedMovieData.getTitle());
+        Movie fetchedMovie = omdbMovie;
+        return inWriteTransaction(() -> applyUpdate(imdbID, updatedMovieData, fetchedMovie));
+    }
+
+    private Movie applyUpdate(String imdbID, Movie updatedMovieData, Movie fetchedMovie) throws MovieNotFoundException {
+        MovieState state = resolveByImdbID(imdbID);
+        Optional<Movie> movieOptional = Optional.ofNullable(state.live());
+        Movie omdbMovie = state.exists() ? null : fetchedMovie;
+
+        boolean titleExistInDb = movieRepository.existsByTitleIgnoreCase(updatedMovieData.getTitle())
+                || archivedMovieRepository.existsByTitleIgnoreCase(updatedMovieData.getTitle());
         boolean existingInDb = movieOptional.map(movie -> movie.getTitle().equalsIgnoreCase(updatedMovieData.getTitle())).orElse(false);
         boolean titleExistInOmdb = omdbMovie != null && omdbMovie.getTitle().equalsIgnoreCase(updatedMovieData.getTitle());
 
-        if (movieOptional.isPresent() && deletedMovie.isEmpty()) {
+        if (state.isLive()) {
 
             Movie movie = movieOptional.get();
 
@@ -257,13 +563,16 @@ public class OmdbService {
                 updatedMovieData.getRatings().forEach(rating -> rating.setMovie(movie));
                 movie.getRatings().clear();
                 movie.getRatings().addAll(updatedMovieData.getRatings());
+                movie.refreshRatingStats();
             }
 
             movie.setUpdated(true);
+            movie.touch();
             movieRepository.save(movie);
+            publishChange(movie, MovieChangedEvent.ChangeType.UPDATED);
             return movie;
 
-        } else if (omdbMovie != null && deletedMovie.isEmpty()) {
+        } else if (omdbMovie != null) {
 
             Movie movie = new Movie();
 
@@ -291,7 +600,10 @@ public class OmdbService {
                 movie.setRatings(omdbMovie.getRatings());
             }
 
+            movie.touch();
+
             movieRepository.save(movie);
+            publishChange(movie, MovieChangedEvent.ChangeType.UPDATED);
             return movie;
 
         } else {
@@ -334,24 +646,26 @@ public class OmdbService {
     }
 
 
-    @Transactional
     public void createMovie(Movie newMovie) throws MovieNotFoundException {
         String url = UriComponentsBuilder.fromHttpUrl(apiUrl)
                 .queryParam("t", URLEncoder.encode(newMovie.getTitle(), StandardCharsets.UTF_8))
                 .queryParam("apikey", apiKey)
                 .toUriString();
 
-        Movie omdbMovie = restTemplate.getForObject(url, Movie.class);
+        Movie omdbMovie = omdbClient.get(url, Movie.class);
+
+        inWriteTransaction(() -> insertMovie(newMovie, omdbMovie));
+    }
 
-        Optional<Movie> existingTitleInDatabase = movieRepository.findByTitleIgnoreCaseAndIsDeletedFalse(newMovie.getTitle());
-        Optional<Movie> deletedMovie = movieRepository.findByTitleIgnoreCaseAndIsDeletedTrue(newMovie.getTitle());
+    private Movie insertMovie(Movie newMovie, Movie omdbMovie) throws MovieNotFoundException {
+        MovieState state = resolveByTitle(newMovie.getTitle());
 
         if (omdbMovie != null && omdbMovie.getTitle() != null
-                && omdbMovie.getTitle().equalsIgnoreCase(newMovie.getTitle()) || existingTitleInDatabase.isPresent()) {
+                && omdbMovie.getTitle().equalsIgnoreCase(newMovie.getTitle()) || state.isLive()) {
             throw new MovieAlreadyExistsException("This movie: " + newMovie.getTitle() + " already exists");
         }
 
-        if (deletedMovie.isPresent()){
+        if (state.isDeleted()){
             throw new MovieNotFoundException("This movie: " + newMovie.getTitle() +" is deleted");
         }
 
@@ -384,8 +698,11 @@ public class OmdbService {
             movie.setRatings(newMovie.getRatings());
         }
 
-        movieRepository.save(movie);
+        movie.touch();
 
+        movieRepository.save(movie);
+        publishChange(movie, MovieChangedEvent.ChangeType.CREATED);
+        return movie;
     }
 
     public String generateUniqueImdbID(){
@@ -395,37 +712,30 @@ public class OmdbService {
 
             do {
                 imdbID = "ttt" + String.format("%06d", random.nextInt(1000000));
-            } while (movieRepository.existsByImdbIDAndIsDeletedFalse(imdbID));
+            } while (movieRepository.existsByImdbID(imdbID) || archivedMovieRepository.existsByImdbID(imdbID));
             return imdbID;
         }
 
-        @Transactional
         public Movie addRating(String title, List <Rating> ratings) throws MovieNotFoundException {
 
             if (title == null || title.trim().isEmpty()) {
                 throw new EmptyValueException("Endpoint value cannot be empty");
             }
 
-            Optional<Movie> movieOpt = movieRepository.findByTitleContainingIgnoreCaseAndIsDeletedFalse(title).stream().findFirst();
-            Optional<Movie> deletedMovie = movieRepository.findByTitleContainingIgnoreCaseAndIsDeletedTrue(title);
-
+            MovieState state = readOnlyTransactionTemplate.execute(transaction -> resolveByTitle(title.trim()));
 
-            if (deletedMovie.isPresent()) {
+            if (state.isDeleted()) {
                 throw new MovieNotFoundException("This movie: " + title + " is deleted");
             }
 
-            if (movieOpt.isPresent()) {
-                Movie movie = movieOpt.get();
-
-                if (movie.getTitle().equalsIgnoreCase(title.trim())) {
-
-                    for (Rating rating : ratings) {
-                        rating.setMovie(movie);
-                        movie.getRatings().add(rating);
-                    }
-                    movieRepository.save(movie);
-                    return movie;
-                }
+            if (state.isLive()) {
+                Movie movie = state.live();
+                RatingIngestionService.RatingTotals totals = ratingIngestionService.append(movie, ratings);
+                movie.setRatingCount(totals.ratingCount());
+                movie.setRatingAverage(totals.ratingAverage());
+                movie.setVersion(totals.version());
+                movie.setLastModified(totals.lastModified());
+                return movie;
             }
 
             String encodedTitle = URLEncoder.encode(title, StandardCharsets.UTF_8);
@@ -435,9 +745,9 @@ public class OmdbService {
                     .queryParam("apikey", apiKey)
                     .toUriString();
 
-            Movie omdbMovie = restTemplate.getForObject(url, Movie.class);
+            Movie omdbMovie = omdbClient.get(url, Movie.class);
 
-            if (omdbMovie.getTitle() != null && movieOpt.isEmpty()) {
+            if (omdbMovie.getTitle() != null) {
 
                 Movie movie = new Movie();
 
@@ -459,8 +769,12 @@ public class OmdbService {
                 }
 
                 movie.setRatings(ratingList);
-                movieRepository.save(movie);
+                movie.touch();
 
+                transactionTemplate.executeWithoutResult(transaction -> {
+                    movieRepository.save(movie);
+                    publishChange(movie, MovieChangedEvent.ChangeType.CREATED);
+                });
                 return movie;
             }
             throw new MovieNotFoundException("Movie with this title: " + title + " doesn't exist");
@@ -473,12 +787,14 @@ public class OmdbService {
                 throw new EmptyValueException("Endpoint values cannot be empty");
             }
 
-            List<Movie> movieList = movieRepository.findByTitleContainingIgnoreCaseAndIsDeletedFalse(query);
+            Set<String> genres = Movie.parseGenres(category);
 
+            if (genres.isEmpty()){
+                throw new EmptyValueException("Endpoint values cannot be empty");
+            }
 
-            List<Movie> moviesIsDb = movieList.stream()
-                    .filter(movie -> movie.getGenre()
-                            .contains(category)).toList();
+            List<Movie> moviesIsDb = readOnlyTransactionTemplate.execute(transaction ->
+                    movieRepository.findDistinctByTitleContainingIgnoreCaseAndGenresIn(query, genres));
 
             List<Movie> results = new ArrayList<>(moviesIsDb);
 
@@ -487,12 +803,12 @@ public class OmdbService {
                     .queryParam("apikey", apiKey)
                     .toUriString();
 
-            OmdbResponse omdbResponse = restTemplate.getForObject(url, OmdbResponse.class);
+            OmdbResponse omdbResponse = omdbClient.get(url, OmdbResponse.class);
 
 
             if (omdbResponse != null && omdbResponse.getSearch() != null) {
                 List<Movie> filteredMovies = omdbResponse.getSearch().stream().map(movie -> getMovieDetails(movie.getImdbID()))
-                        .filter(movie -> movie.getGenre().contains(category))
+                        .filter(movie -> movie != null && movie.getGenres().stream().anyMatch(genres::contains))
                         .toList();
 
                 results.addAll(filteredMovies);
@@ -514,26 +830,24 @@ public class OmdbService {
                     .queryParam("apikey", apiKey)
                     .toUriString();
 
-            return restTemplate.getForObject(url, Movie.class);
+            return omdbClient.get(url, Movie.class);
         }
 
         @Transactional
         public Movie enableMovie (String title) throws MovieNotFoundException {
 
-        Optional<Movie> movieOpt = movieRepository.findByTitleIgnoreCaseAndIsDeletedTrue(title);
-        Optional<Movie> enabledMovie = movieRepository.findByTitleIgnoreCaseAndIsDeletedFalse(title);
+        MovieState state = resolveByTitle(title);
 
-        if (enabledMovie.isEmpty() && movieOpt.isPresent()){
-            Movie movie = movieOpt.get();
-            movie.setDeleted(false);
-            movieRepository.save(movie);
+        if (!state.isLive() && state.isDeleted()){
+            Movie movie = movieArchiveService.restore(state.deleted());
+            publishChange(movie, MovieChangedEvent.ChangeType.ENABLED);
             return movie;
         }
             if (title.isEmpty()){
                 throw new EmptyValueException("Endpoint value cannot be empty");
             }
 
-        if (enabledMovie.isPresent()){
+        if (state.isLive()){
             throw new MovieNotFoundException("Movie with this title: "+ title + " is enable");
         }
 
@@ -541,24 +855,26 @@ public class OmdbService {
         }
 
 
-    @Transactional
     public Movie createMovieFront(Movie newMovie) throws MovieNotFoundException {
         String url = UriComponentsBuilder.fromHttpUrl(apiUrl)
                 .queryParam("t", URLEncoder.encode(newMovie.getTitle(), StandardCharsets.UTF_8))
                 .queryParam("apikey", apiKey)
                 .toUriString();
 
-        Movie omdbMovie = restTemplate.getForObject(url, Movie.class);
+        Movie omdbMovie = omdbClient.get(url, Movie.class);
+
+        return inWriteTransaction(() -> insertMovieFront(newMovie, omdbMovie));
+    }
 
-        Optional<Movie> existingTitleInDatabase = movieRepository.findByTitleIgnoreCaseAndIsDeletedFalse(newMovie.getTitle());
-        Optional<Movie> deletedMovie = movieRepository.findByTitleIgnoreCaseAndIsDeletedTrue(newMovie.getTitle());
+    private Movie insertMovieFront(Movie newMovie, Movie omdbMovie) throws MovieNotFoundException {
+        MovieState state = resolveByTitle(newMovie.getTitle());
 
         if (omdbMovie != null && omdbMovie.getTitle() != null
-                && omdbMovie.getTitle().equalsIgnoreCase(newMovie.getTitle()) || existingTitleInDatabase.isPresent()) {
+                && omdbMovie.getTitle().equalsIgnoreCase(newMovie.getTitle()) || state.isLive()) {
             throw new MovieAlreadyExistsException("This movie: " + newMovie.getTitle() + " already exists");
         }
 
-        if (deletedMovie.isPresent()){
+        if (state.isDeleted()){
             throw new MovieNotFoundException("This movie: " + newMovie.getTitle() +" is deleted");
         }
 
@@ -591,7 +907,10 @@ public class OmdbService {
             movie.setRatings(newMovie.getRatings());
         }
 
+        movie.touch();
+
         movieRepository.save(movie);
+        publishChange(movie, MovieChangedEvent.ChangeType.CREATED);
         return movie;
     }
 
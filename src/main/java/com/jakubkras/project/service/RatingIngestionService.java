@@ -0,0 +1,267 @@
+package com.jakubkras.project.service;
+
+import com.jakubkras.project.config.ReadYourWritesFilter;
+import com.jakubkras.project.entity.Movie;
+import com.jakubkras.project.entity.Rating;
+import com.jakubkras.project.event.MovieChangedEvent;
+import com.jakubkras.project.exception.MovieNotFoundException;
+import com.jakubkras.project.exception.RatingsOverloadedException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+public class RatingIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingIngestionService.class);
+
+    private static final String UPDATE_MOVIE = """
+            UPDATE movie
+            SET rating_average = CASE WHEN ? = 0 THEN rating_average
+                                      ELSE (coalesce(rating_average, 0) * rating_count + ?) / (rating_count + ?) END,
+                rating_count = rating_count + ?,
+                version = version + 1,
+                last_modified = ?
+            WHERE id = ?
+            """;
+
+    private static final String INSERT_RATING = "INSERT INTO rating (movie_id, source, value, score) VALUES (?, ?, ?, ?)";
+
+    private static final String SELECT_TOTALS = "SELECT id, rating_count, rating_average, version, last_modified FROM movie WHERE id = ANY (?)";
+
+    public record RatingTotals(int ratingCount, Double ratingAverage, long version, Instant lastModified) {
+    }
+
+    private record PendingRatings(int movieId, String imdbID, String title, List<Rating> ratings, CompletableFuture<RatingTotals> durable) {
+    }
+
+    private record Row(int movieId, Rating rating) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReadYourWritesFilter readYourWrites;
+    private final BlockingQueue<PendingRatings> queue;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Duration ackTimeout;
+    private final Duration enqueueTimeout;
+    private volatile boolean running = true;
+    private Thread flusher;
+
+    @Autowired
+    public RatingIngestionService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                  ApplicationEventPublisher eventPublisher, ReadYourWritesFilter readYourWrites,
+                                  @Value("${movies.ratings.batch-size:500}") int batchSize,
+                                  @Value("${movies.ratings.max-delay:5ms}") Duration maxDelay,
+                                  @Value("${movies.ratings.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${movies.ratings.ack-timeout:5s}") Duration ackTimeout,
+                                  @Value("${movies.ratings.enqueue-timeout:100ms}") Duration enqueueTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.readYourWrites = readYourWrites;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.ackTimeout = ackTimeout;
+        this.enqueueTimeout = enqueueTimeout;
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Thread.ofPlatform().name("rating-ingestion").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(ackTimeout.toMillis());
+    }
+
+    public RatingTotals append(Movie movie, List<Rating> ratings) throws MovieNotFoundException {
+        PendingRatings pending = new PendingRatings(movie.getId(), movie.getImdbID(), movie.getTitle(),
+                List.copyOf(ratings), new CompletableFuture<>());
+
+        try {
+            if (!queue.offer(pending, enqueueTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new RatingsOverloadedException("Too many pending ratings, try again later");
+            }
+            RatingTotals totals = awaitDurable(pending);
+            // the batch committed on the ingestion thread, so the caller's request records the write itself
+            readYourWrites.recordWrite();
+            return totals;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rating for movie: " + movie.getTitle() + " was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MovieNotFoundException movieNotFoundException) {
+                throw movieNotFoundException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Rating for movie: " + movie.getTitle() + " failed", e.getCause());
+        }
+    }
+
+    private RatingTotals awaitDurable(PendingRatings pending) throws InterruptedException, ExecutionException {
+        try {
+            return pending.durable().get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (queue.remove(pending)) {
+                throw new RatingsOverloadedException("Rating for movie: " + pending.title() + " was not written in time, try again later");
+            }
+            return pending.durable().get();
+        }
+    }
+
+    private void run() {
+        List<PendingRatings> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingRatings first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    PendingRatings next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingRatings> batch) {
+        try {
+            complete(batch, transactionTemplate.execute(transaction -> write(batch)));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.getFirst().durable().completeExceptionally(e);
+                return;
+            }
+
+            log.warn("Rating batch of {} failed, retrying each request in its own transaction", batch.size(), e);
+            for (PendingRatings pending : batch) {
+                try {
+                    complete(List.of(pending), transactionTemplate.execute(transaction -> write(List.of(pending))));
+                } catch (RuntimeException pendingFailure) {
+                    pending.durable().completeExceptionally(pendingFailure);
+                }
+            }
+        }
+    }
+
+    private void complete(List<PendingRatings> batch, Map<Integer, RatingTotals> written) {
+        for (PendingRatings pending : batch) {
+            RatingTotals totals = written.get(pending.movieId());
+
+            if (totals != null) {
+                pending.durable().complete(totals);
+            } else {
+                pending.durable().completeExceptionally(new MovieNotFoundException("This movie: " + pending.title() + " is deleted"));
+            }
+        }
+    }
+
+    private Map<Integer, RatingTotals> write(List<PendingRatings> batch) {
+        Map<Integer, List<PendingRatings>> byMovie = new TreeMap<>();
+        batch.forEach(pending -> byMovie.computeIfAbsent(pending.movieId(), id -> new ArrayList<>()).add(pending));
+
+        List<Object[]> updates = new ArrayList<>(byMovie.size());
+        Timestamp now = Timestamp.from(Instant.now());
+
+        byMovie.forEach((movieId, pendings) -> {
+            int scored = 0;
+            double total = 0;
+            for (PendingRatings pending : pendings) {
+                for (Rating rating : pending.ratings()) {
+                    if (rating.getScore() != null) {
+                        scored++;
+                        total += rating.getScore();
+                    }
+                }
+            }
+            updates.add(new Object[]{scored, total, scored, scored, now, movieId});
+        });
+
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_MOVIE, updates);
+
+        List<Integer> written = new ArrayList<>();
+        List<Row> rows = new ArrayList<>();
+        int index = 0;
+
+        for (Map.Entry<Integer, List<PendingRatings>> entry : byMovie.entrySet()) {
+            if (updated[index++] > 0) {
+                written.add(entry.getKey());
+                entry.getValue().forEach(pending -> pending.ratings().forEach(rating -> rows.add(new Row(entry.getKey(), rating))));
+
+                PendingRatings pending = entry.getValue().getFirst();
+                eventPublisher.publishEvent(new MovieChangedEvent(pending.imdbID(), pending.title(), MovieChangedEvent.ChangeType.RATED));
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_RATING, rows, batchSize, (statement, row) -> {
+            statement.setInt(1, row.movieId());
+            statement.setString(2, row.rating().getSource());
+            statement.setString(3, row.rating().getValue());
+            if (row.rating().getScore() != null) {
+                statement.setDouble(4, row.rating().getScore());
+            } else {
+                statement.setNull(4, Types.DOUBLE);
+            }
+        });
+
+        Map<Integer, RatingTotals> totals = new HashMap<>();
+        if (!written.isEmpty()) {
+            jdbcTemplate.query(SELECT_TOTALS,
+                    statement -> statement.setArray(1, statement.getConnection().createArrayOf("integer", written.toArray())),
+                    resultSet -> {
+                        totals.put(resultSet.getInt("id"), new RatingTotals(resultSet.getInt("rating_count"),
+                                resultSet.getObject("rating_average", Double.class), resultSet.getLong("version"),
+                                resultSet.getTimestamp("last_modified").toInstant()));
+                    });
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,196 @@
+package com.jakubkras.project.service;
+
+import com.jakubkras.project.entity.TitleSuggestion;
+import com.jakubkras.project.event.MovieChangedEvent;
+import com.jakubkras.project.exception.EmptyValueException;
+import com.jakubkras.project.repository.MovieRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Service
+public class TitleSuggestionService {
+
+    private record Candidate(TitleSuggestion suggestion, int distance) {
+    }
+
+    private final MovieRepository movieRepository;
+    private final int maxResults;
+    private final int maxDistance;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong changeSequence = new AtomicLong();
+
+    private TitleTrie trie;
+    private BkTree bkTree;
+    private final Map<String, Set<String>> keysByImdbID = new HashMap<>();
+    private final Map<String, Map<String, TitleSuggestion>> suggestionsByKey = new HashMap<>();
+    private final Map<String, Long> appliedSequence = new HashMap<>();
+    private long rebuiltSequence;
+
+    @Autowired
+    public TitleSuggestionService(MovieRepository movieRepository,
+                                  @Value("${movies.suggest.max-results:10}") int maxResults,
+                                  @Value("${movies.suggest.max-distance:2}") int maxDistance) {
+        this.movieRepository = movieRepository;
+        this.maxResults = maxResults;
+        this.maxDistance = maxDistance;
+        this.trie = new TitleTrie(maxResults);
+        this.bkTree = new BkTree();
+    }
+
+    public List<TitleSuggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+
+        if (key.isEmpty()) {
+            throw new EmptyValueException("Endpoint value cannot be empty");
+        }
+
+        lock.readLock().lock();
+        try {
+            return trie.find(key, Math.min(limit, maxResults));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<TitleSuggestion> didYouMean(String title) {
+        String key = normalize(title);
+
+        if (key.isEmpty()) {
+            throw new EmptyValueException("Endpoint value cannot be empty");
+        }
+
+        int distance = Math.min(maxDistance, key.length() / 3);
+        Map<String, Candidate> candidates = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            bkTree.search(key, distance, (match, matchDistance) ->
+                    suggestionsByKey.getOrDefault(match, Map.of()).values().forEach(suggestion ->
+                            candidates.merge(suggestion.getImdbID(), new Candidate(suggestion, matchDistance),
+                                    (first, second) -> first.distance() <= second.distance() ? first : second)));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return candidates.values().stream()
+                .sorted(Comparator.comparingInt(Candidate::distance)
+                        .thenComparing(Candidate::suggestion, TitleTrie.RANKING))
+                .limit(maxResults)
+                .map(Candidate::suggestion)
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startSequence = changeSequence.get();
+        List<TitleSuggestion> suggestions = movieRepository.findTitleSuggestions();
+        Map<String, String> previousTitles = new HashMap<>();
+        movieRepository.findImdbIDsAndPreviousTitles().forEach(row -> previousTitles.put((String) row[0], (String) row[1]));
+
+        List<String> changedDuringRebuild;
+
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = appliedSequence.entrySet().stream()
+                    .filter(applied -> applied.getValue() > startSequence)
+                    .map(Map.Entry::getKey)
+                    .toList();
+
+            trie = new TitleTrie(maxResults);
+            bkTree = new BkTree();
+            keysByImdbID.clear();
+            suggestionsByKey.clear();
+            appliedSequence.clear();
+            rebuiltSequence = startSequence;
+            suggestions.forEach(suggestion -> index(suggestion, previousTitles.get(suggestion.getImdbID())));
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        changedDuringRebuild.forEach(this::refresh);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        refresh(event.imdbID());
+    }
+
+    // every change re-reads the row: the sequence is taken before the read, so a higher sequence has always
+    // seen a state at least as new as a lower one, and an older read applied late is dropped under the lock
+    private void refresh(String imdbID) {
+        long sequence = changeSequence.incrementAndGet();
+        TitleSuggestion suggestion = movieRepository.findTitleSuggestionByImdbID(imdbID).orElse(null);
+        String previousTitle = suggestion == null
+                ? null
+                : movieRepository.findPreviousTitleByImdbID(imdbID).orElse(null);
+
+        lock.writeLock().lock();
+        try {
+            if (sequence <= rebuiltSequence || sequence < appliedSequence.getOrDefault(imdbID, 0L)) {
+                return;
+            }
+            appliedSequence.put(imdbID, sequence);
+
+            keysByImdbID.getOrDefault(imdbID, Set.of()).forEach(key -> unindex(key, imdbID));
+
+            if (suggestion == null) {
+                keysByImdbID.remove(imdbID);
+            } else {
+                index(suggestion, previousTitle);
+            }
+
+            if (bkTree.size() > 2 * Math.max(suggestionsByKey.size(), 1)) {
+                bkTree = new BkTree();
+                suggestionsByKey.keySet().forEach(bkTree::add);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(TitleSuggestion suggestion, String previousTitle) {
+        Set<String> keys = keysByImdbID.computeIfAbsent(suggestion.getImdbID(), imdbID -> new LinkedHashSet<>());
+        keys.add(normalize(suggestion.getTitle()));
+
+        if (previousTitle != null && !normalize(previousTitle).isEmpty()) {
+            keys.add(normalize(previousTitle));
+        }
+
+        keys.forEach(key -> {
+            trie.put(key, suggestion);
+            suggestionsByKey.computeIfAbsent(key, k -> new HashMap<>(2)).put(suggestion.getImdbID(), suggestion);
+            bkTree.add(key);
+        });
+    }
+
+    private void unindex(String key, String imdbID) {
+        trie.remove(key, imdbID);
+
+        Map<String, TitleSuggestion> suggestions = suggestionsByKey.get(key);
+        if (suggestions != null) {
+            suggestions.remove(imdbID);
+            if (suggestions.isEmpty()) {
+                suggestionsByKey.remove(key);
+            }
+        }
+    }
+
+    private static String normalize(String title) {
+        return title == null ? "" : title.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
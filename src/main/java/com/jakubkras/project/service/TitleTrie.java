@@ -0,0 +1,168 @@
+package com.jakubkras.project.service;
+
+import com.jakubkras.project.entity.TitleSuggestion;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Radix trie keyed by normalized titles. Every node keeps the best {@code maxResults} suggestions of its subtree,
+ * so a lookup costs one walk down the prefix and never scans the subtree.
+ */
+class TitleTrie {
+
+    static final Comparator<TitleSuggestion> RANKING = Comparator
+            .comparingInt(TitleSuggestion::getRatingCount).reversed()
+            .thenComparingInt((TitleSuggestion suggestion) -> suggestion.getTitle().length())
+            .thenComparing(TitleSuggestion::getTitle)
+            .thenComparing(TitleSuggestion::getImdbID);
+
+    private static class Node {
+        private String label;
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final Map<String, TitleSuggestion> terminals = new LinkedHashMap<>(2);
+        private List<TitleSuggestion> top = List.of();
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+
+    private final int maxResults;
+    private final Node root = new Node("");
+
+    TitleTrie(int maxResults) {
+        this.maxResults = maxResults;
+    }
+
+    void put(String key, TitleSuggestion suggestion) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        String rest = key;
+        path.push(node);
+
+        while (!rest.isEmpty()) {
+            Node child = node.children.get(rest.charAt(0));
+
+            if (child == null) {
+                child = new Node(rest);
+                node.children.put(rest.charAt(0), child);
+                rest = "";
+            } else {
+                int common = commonPrefix(child.label, rest);
+
+                if (common < child.label.length()) {
+                    Node split = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    split.children.put(child.label.charAt(0), child);
+                    split.top = child.top;
+                    node.children.put(split.label.charAt(0), split);
+                    child = split;
+                }
+                rest = rest.substring(common);
+            }
+            node = child;
+            path.push(node);
+        }
+
+        node.terminals.put(suggestion.getImdbID(), suggestion);
+        path.forEach(this::refresh);
+    }
+
+    void remove(String key, String imdbID) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        String rest = key;
+        path.push(node);
+
+        while (!rest.isEmpty()) {
+            Node child = node.children.get(rest.charAt(0));
+
+            if (child == null || !rest.startsWith(child.label)) {
+                return;
+            }
+            rest = rest.substring(child.label.length());
+            node = child;
+            path.push(node);
+        }
+
+        if (node.terminals.remove(imdbID) == null) {
+            return;
+        }
+
+        Node removed = path.pop();
+        Node parent = path.peek();
+        if (parent != null && removed.terminals.isEmpty()) {
+            if (removed.children.isEmpty()) {
+                parent.children.remove(removed.label.charAt(0));
+            } else if (removed.children.size() == 1) {
+                Node only = removed.children.values().iterator().next();
+                only.label = removed.label + only.label;
+                parent.children.put(only.label.charAt(0), only);
+            } else {
+                refresh(removed);
+            }
+        } else {
+            refresh(removed);
+        }
+        path.forEach(this::refresh);
+    }
+
+    List<TitleSuggestion> find(String prefix, int limit) {
+        Node node = root;
+        String rest = prefix;
+
+        while (!rest.isEmpty()) {
+            Node child = node.children.get(rest.charAt(0));
+
+            if (child == null) {
+                return List.of();
+            }
+            int common = commonPrefix(child.label, rest);
+
+            if (common == rest.length()) {
+                node = child;
+                break;
+            }
+            if (common < child.label.length()) {
+                return List.of();
+            }
+            rest = rest.substring(common);
+            node = child;
+        }
+
+        List<TitleSuggestion> top = node.top;
+        return top.size() > limit ? top.subList(0, limit) : top;
+    }
+
+    private void refresh(Node node) {
+        Map<String, TitleSuggestion> best = new HashMap<>();
+
+        node.terminals.values().forEach(suggestion -> best.merge(suggestion.getImdbID(), suggestion, TitleTrie::better));
+        node.children.values().forEach(child -> child.top.forEach(suggestion -> best.merge(suggestion.getImdbID(), suggestion, TitleTrie::better)));
+
+        List<TitleSuggestion> top = new ArrayList<>(best.values());
+        top.sort(RANKING);
+        node.top = List.copyOf(top.size() > maxResults ? top.subList(0, maxResults) : top);
+    }
+
+    private static TitleSuggestion better(TitleSuggestion first, TitleSuggestion second) {
+        return RANKING.compare(first, second) <= 0 ? first : second;
+    }
+
+    private static int commonPrefix(String first, String second) {
+        int length = Math.min(first.length(), second.length());
+        int i = 0;
+
+        while (i < length && first.charAt(i) == second.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+}
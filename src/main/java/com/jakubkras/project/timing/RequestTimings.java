@@ -0,0 +1,104 @@
+package com.jakubkras.project.timing;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class RequestTimings {
+
+    public static final String DB = "db";
+    public static final String OMDB = "omdb";
+    public static final String HANDLER = "handler";
+    public static final String SERIALIZE = "serialize";
+    public static final String RENDER = "render";
+    public static final String TOTAL = "total";
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private record Phase(LongAdder count, LongAdder nanos) {
+    }
+
+    private final ConcurrentMap<String, Phase> phases = new ConcurrentHashMap<>();
+    private final long startedAt = System.nanoTime();
+
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    static void bind(RequestTimings timings) {
+        if (timings == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(timings);
+        }
+    }
+
+    public static void record(String phase, long nanos) {
+        RequestTimings timings = CURRENT.get();
+
+        if (timings != null) {
+            timings.add(phase, nanos);
+        }
+    }
+
+    public static <T> T time(String phase, Supplier<T> action) {
+        RequestTimings timings = CURRENT.get();
+
+        if (timings == null) {
+            return action.get();
+        }
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            timings.add(phase, System.nanoTime() - start);
+        }
+    }
+
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        RequestTimings timings = CURRENT.get();
+
+        if (timings == null) {
+            return task;
+        }
+        return () -> {
+            RequestTimings previous = CURRENT.get();
+            CURRENT.set(timings);
+            try {
+                return task.call();
+            } finally {
+                bind(previous);
+            }
+        };
+    }
+
+    public void add(String phase, long nanos) {
+        Phase totals = phases.computeIfAbsent(phase, name -> new Phase(new LongAdder(), new LongAdder()));
+        totals.count().increment();
+        totals.nanos().add(nanos);
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startedAt;
+    }
+
+    public String toHeaderValue() {
+        StringJoiner header = new StringJoiner(", ");
+
+        for (Map.Entry<String, Phase> entry : phases.entrySet()) {
+            header.add(entry.getKey() + ";dur=" + millis(entry.getValue().nanos().sum())
+                    + ";desc=\"count=" + entry.getValue().count().sum() + "\"");
+        }
+        header.add(TOTAL + ";dur=" + millis(elapsedNanos()));
+        return header.toString();
+    }
+
+    private String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+}
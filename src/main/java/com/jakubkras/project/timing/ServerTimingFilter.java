@@ -0,0 +1,116 @@
+package com.jakubkras.project.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private final boolean enabled;
+
+    @Autowired
+    public ServerTimingFilter(@Value("${movies.server-timing.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTimings timings = new RequestTimings();
+        TimingResponse timed = new TimingResponse(response, timings);
+
+        // the header can only hold the phases finished before the first byte, the trailer follows the body with all of them
+        try {
+            response.setTrailerFields(() -> Map.of(SERVER_TIMING, timings.toHeaderValue()));
+            response.setHeader(HttpHeaders.TRAILER, SERVER_TIMING);
+        } catch (IllegalStateException e) {
+            // HTTP/1.0 has no trailers, the header alone is sent
+        }
+
+        RequestTimings.bind(timings);
+        try {
+            filterChain.doFilter(request, timed);
+        } finally {
+            RequestTimings.bind(null);
+            if (!request.isAsyncStarted()) {
+                timed.writeHeader();
+            }
+        }
+    }
+
+    // sets the header just before the response commits, so the body streams through instead of being buffered
+    private static final class TimingResponse extends HttpServletResponseWrapper {
+
+        private final RequestTimings timings;
+
+        private TimingResponse(HttpServletResponse response, RequestTimings timings) {
+            super(response);
+            this.timings = timings;
+        }
+
+        private void writeHeader() {
+            if (!isCommitted()) {
+                setHeader(SERVER_TIMING, timings.toHeaderValue());
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
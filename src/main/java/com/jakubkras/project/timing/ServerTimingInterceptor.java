@@ -0,0 +1,44 @@
+package com.jakubkras.project.timing;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+@Component
+public class ServerTimingInterceptor implements HandlerInterceptor {
+
+    static final String HANDLER_START = ServerTimingInterceptor.class.getName() + ".handlerStart";
+    static final String SERIALIZE_START = ServerTimingInterceptor.class.getName() + ".serializeStart";
+    private static final String RENDER_START = ServerTimingInterceptor.class.getName() + ".renderStart";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(HANDLER_START, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        if (modelAndView != null && request.getAttribute(SERIALIZE_START) == null) {
+            long now = System.nanoTime();
+            RequestTimings.record(RequestTimings.HANDLER, now - (long) request.getAttribute(HANDLER_START));
+            request.setAttribute(RENDER_START, now);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        long now = System.nanoTime();
+
+        if (request.getAttribute(SERIALIZE_START) instanceof Long serializeStart) {
+            RequestTimings.record(RequestTimings.HANDLER, serializeStart - (long) request.getAttribute(HANDLER_START));
+            RequestTimings.record(RequestTimings.SERIALIZE, now - serializeStart);
+        } else if (request.getAttribute(RENDER_START) instanceof Long renderStart) {
+            RequestTimings.record(RequestTimings.RENDER, now - renderStart);
+        } else if (request.getAttribute(HANDLER_START) instanceof Long handlerStart) {
+            RequestTimings.record(RequestTimings.HANDLER, now - handlerStart);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+ALTER TABLE movie ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(genre, '')), 'B') ||
+    setweight(to_tsvector('english', coalesce(plot, '')), 'C') ||
+    setweight(to_tsvector('english', coalesce(awards, '')), 'D')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_movie_search_vector ON movie USING GIN (search_vector);
+
+INSERT INTO movie_genre (movie_id, genre)
+SELECT DISTINCT m.id, lower(trim(g.name))
+FROM movie m
+CROSS JOIN LATERAL unnest(string_to_array(m.genre, ',')) AS g(name)
+WHERE trim(g.name) <> ''
+  AND NOT EXISTS (SELECT 1 FROM movie_genre mg WHERE mg.movie_id = m.id);
+
+UPDATE rating
+SET score = split_part(value, '/', 1)::numeric * 100 / split_part(value, '/', 2)::numeric
+WHERE score IS NULL
+  AND value ~ '^\s*\d+(\.\d+)?\s*/\s*\d*[1-9]\d*(\.\d+)?\s*$';
+
+UPDATE rating
+SET score = rtrim(trim(value), '%')::numeric
+WHERE score IS NULL
+  AND value ~ '^\s*\d+(\.\d+)?\s*%\s*$';
+
+UPDATE movie m
+SET rating_count = s.rating_count, rating_average = s.rating_average
+FROM (SELECT movie_id, count(score) AS rating_count, avg(score) AS rating_average
+      FROM rating WHERE score IS NOT NULL GROUP BY movie_id) s
+WHERE s.movie_id = m.id
+  AND m.rating_average IS NULL;
+
+UPDATE movie
+SET release_year_number = substring(release_year FROM '\d{4}')::integer
+WHERE release_year_number IS NULL
+  AND release_year ~ '\d{4}';
+
+DROP INDEX IF EXISTS idx_movie_top_rated;
+
+DROP INDEX IF EXISTS idx_movie_top_rated_by_year;
+
+CREATE INDEX IF NOT EXISTS idx_movie_rated ON movie (rating_average DESC, rating_count DESC)
+    WHERE rating_average IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_movie_rated_by_year ON movie (release_year_number, rating_average DESC, rating_count DESC)
+    WHERE rating_average IS NOT NULL;
+
+UPDATE movie SET last_modified = now() WHERE last_modified IS NULL;
+
+DO 'BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = ''movie'' AND column_name = ''is_deleted'') THEN
+        ALTER TABLE movie ALTER COLUMN is_deleted SET DEFAULT false;
+        ALTER TABLE movie ALTER COLUMN is_deleted DROP NOT NULL;
+    END IF;
+END';
+
+DROP INDEX IF EXISTS uq_movie_title_lower_live;
+
+DO 'BEGIN
+    IF to_regclass(''uq_movie_title_lower'') IS NULL THEN
+        IF EXISTS (SELECT 1 FROM movie WHERE title IS NOT NULL GROUP BY lower(title) HAVING count(*) > 1) THEN
+            RAISE WARNING ''movie holds titles that differ only in case, uq_movie_title_lower is not created until they are resolved'';
+            CREATE INDEX IF NOT EXISTS idx_movie_title_lower ON movie (lower(title));
+        ELSE
+            CREATE UNIQUE INDEX uq_movie_title_lower ON movie (lower(title));
+            DROP INDEX IF EXISTS idx_movie_title_lower;
+        END IF;
+    END IF;
+END';
+
+DROP INDEX IF EXISTS idx_movie_title_lower_deleted;
+
+CREATE INDEX IF NOT EXISTS idx_movie_archive_title_lower ON movie_archive (lower(title));
+
+CREATE TABLE IF NOT EXISTS omdb_quota (
+    name        varchar(255) PRIMARY KEY,
+    tokens      double precision NOT NULL,
+    capacity    double precision NOT NULL,
+    rate        double precision NOT NULL,
+    refilled_at timestamptz NOT NULL
+);
+
+ALTER TABLE movie_change ADD COLUMN IF NOT EXISTS tx_id bigint;
+
+ALTER TABLE movie_change ALTER COLUMN tx_id SET DEFAULT pg_current_xact_id()::text::bigint;
+
+UPDATE movie_change SET tx_id = pg_current_xact_id()::text::bigint WHERE tx_id IS NULL;
+
+ALTER TABLE movie_change ALTER COLUMN tx_id SET NOT NULL;
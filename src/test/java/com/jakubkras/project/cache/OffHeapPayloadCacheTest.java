@@ -0,0 +1,110 @@
+package com.jakubkras.project.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapPayloadCacheTest {
+
+    private OffHeapPayloadCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new OffHeapPayloadCache(new Jackson2ObjectMapperBuilder(), DataSize.ofBytes(100), Duration.ofHours(1),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void wrapEvictsTheOldestEntriesAtTheStartOfTheBuffer() {
+        cache.write("a", bytes(40, 'a'));
+        cache.write("b", bytes(40, 'b'));
+        cache.write("c", bytes(30, 'c'));
+
+        assertThat(cache.read("a")).isNull();
+        assertThat(cache.read("b")).isEqualTo(bytes(40, 'b'));
+        assertThat(cache.read("c")).isEqualTo(bytes(30, 'c'));
+        assertThat(cache.entries()).isEqualTo(2);
+        assertThat(cache.usedBytes()).isEqualTo(70L);
+    }
+
+    @Test
+    void writeEvictsEveryEntryItOverlaps() {
+        cache.write("a", bytes(20, 'a'));
+        cache.write("b", bytes(20, 'b'));
+        cache.write("c", bytes(20, 'c'));
+        cache.write("d", bytes(30, 'd'));
+        cache.write("e", bytes(50, 'e'));
+
+        assertThat(cache.read("a")).isNull();
+        assertThat(cache.read("b")).isNull();
+        assertThat(cache.read("c")).isNull();
+        assertThat(cache.read("d")).isEqualTo(bytes(30, 'd'));
+        assertThat(cache.read("e")).isEqualTo(bytes(50, 'e'));
+        assertThat(cache.usedBytes()).isEqualTo(80L);
+    }
+
+    @Test
+    void wrapDropsEntriesLeftInTheUnusedTail() {
+        cache.write("a", bytes(40, 'a'));
+        cache.write("b", bytes(40, 'b'));
+        cache.write("tail", bytes(15, 't'));
+        cache.write("c", bytes(30, 'c'));
+        cache.write("d", bytes(45, 'd'));
+        cache.write("e", bytes(30, 'e'));
+
+        assertThat(cache.read("tail")).isNull();
+        assertThat(cache.read("c")).isNull();
+        assertThat(cache.read("d")).isEqualTo(bytes(45, 'd'));
+        assertThat(cache.read("e")).isEqualTo(bytes(30, 'e'));
+        assertThat(cache.entries()).isEqualTo(2);
+        assertThat(cache.usedBytes()).isEqualTo(75L);
+    }
+
+    @Test
+    void overwritingAKeyKeepsTheNewValueWhenTheOldSlotIsEvicted() {
+        cache.write("a", bytes(30, '1'));
+        cache.write("a", bytes(20, '2'));
+
+        assertThat(cache.read("a")).isEqualTo(bytes(20, '2'));
+        assertThat(cache.entries()).isEqualTo(1);
+        assertThat(cache.usedBytes()).isEqualTo(20L);
+
+        cache.write("b", bytes(40, 'b'));
+        cache.write("c", bytes(30, 'c'));
+
+        assertThat(cache.read("a")).isEqualTo(bytes(20, '2'));
+        assertThat(cache.read("b")).isEqualTo(bytes(40, 'b'));
+        assertThat(cache.read("c")).isEqualTo(bytes(30, 'c'));
+        assertThat(cache.usedBytes()).isEqualTo(90L);
+    }
+
+    @Test
+    void payloadLargerThanTheBufferIsNotCached() {
+        cache.write("a", bytes(40, 'a'));
+        cache.write("huge", bytes(101, 'h'));
+
+        assertThat(cache.read("huge")).isNull();
+        assertThat(cache.read("a")).isEqualTo(bytes(40, 'a'));
+    }
+
+    @Test
+    void valuesRoundTripThroughSmile() {
+        cache.put("movie", Map.of("Title", "Inception"));
+
+        assertThat(cache.get("movie", Map.class)).isEqualTo(Map.of("Title", "Inception"));
+    }
+
+    private byte[] bytes(int length, char fill) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) fill);
+        return bytes;
+    }
+}
@@ -0,0 +1,95 @@
+package com.jakubkras.project.client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long RTT = 1_000_000;
+
+    @Test
+    void limitGrowsAdditivelyWhileSaturatedUpToTheMaximum() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 2, 6, 2.0, 0.5);
+        fill(limiter);
+
+        for (int i = 0; i < 4; i++) {
+            limiter.onSuccess(System.nanoTime(), RTT);
+            limiter.acquire(0);
+        }
+        assertThat(limiter.limit()).isEqualTo(4);
+
+        for (int i = 0; i < 200; i++) {
+            limiter.onSuccess(System.nanoTime(), RTT);
+            fill(limiter);
+        }
+        assertThat(limiter.limit()).isEqualTo(6);
+        assertThat(limiter.inFlight()).isEqualTo(6);
+    }
+
+    @Test
+    void limitStaysPutWhenMostPermitsAreIdle() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 2, 16, 2.0, 0.5);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.acquire(0)).isTrue();
+            limiter.onSuccess(System.nanoTime(), RTT);
+        }
+        assertThat(limiter.limit()).isEqualTo(8);
+        assertThat(limiter.inFlight()).isEqualTo(0);
+    }
+
+    @Test
+    void dropCutsTheLimitOncePerWindowDownToTheMinimum() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 20, 2.0, 0.5);
+        fill(limiter);
+
+        long firstStart = System.nanoTime();
+        long secondStart = System.nanoTime();
+        limiter.onDropped(firstStart);
+        assertThat(limiter.limit()).isEqualTo(5);
+
+        limiter.onDropped(secondStart);
+        assertThat(limiter.limit()).as("requests started before the last decrease do not cut again").isEqualTo(5);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.onDropped(System.nanoTime());
+        }
+        assertThat(limiter.limit()).isEqualTo(2);
+        assertThat(limiter.inFlight()).isEqualTo(3);
+    }
+
+    @Test
+    void slowResponseAboveTheBaselineCutsTheLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 20, 2.0, 0.5);
+
+        for (int i = 0; i < 64; i++) {
+            limiter.acquire(0);
+            limiter.onSuccess(System.nanoTime(), RTT);
+        }
+        assertThat(limiter.limit()).isEqualTo(10);
+
+        limiter.acquire(0);
+        limiter.onSuccess(System.nanoTime(), RTT * 3);
+        assertThat(limiter.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void acquireRejectsOnceTheLimitIsReachedAndWakesUpOnRelease() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 4, 2.0, 0.5);
+        fill(limiter);
+        long rejected = limiter.rejected();
+
+        assertThat(limiter.acquire(1_000_000)).isFalse();
+        assertThat(limiter.rejected()).isEqualTo(rejected + 1);
+
+        limiter.onIgnored();
+        assertThat(limiter.acquire(0)).isTrue();
+        assertThat(limiter.limit()).isEqualTo(2);
+    }
+
+    private void fill(AdaptiveConcurrencyLimiter limiter) throws InterruptedException {
+        while (limiter.acquire(0)) {
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.jakubkras.project.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyWindowTest {
+
+    @Test
+    void percentileIsUnknownUntilTheFirstRecompute() {
+        LatencyWindow window = new LatencyWindow(128, 95);
+
+        for (int i = 1; i < 32; i++) {
+            window.record(i);
+            assertThat(window.percentileNanos()).isEqualTo(-1L);
+        }
+
+        window.record(32);
+        assertThat(window.percentileNanos()).isEqualTo(31L);
+    }
+
+    @Test
+    void percentileUsesTheNearestRankOverTheRecordedSamples() {
+        LatencyWindow window = new LatencyWindow(128, 95);
+
+        for (int i = 1; i <= 64; i++) {
+            window.record(i);
+        }
+        assertThat(window.percentileNanos()).isEqualTo(61L);
+    }
+
+    @Test
+    void oldSamplesLeaveTheWindow() {
+        LatencyWindow window = new LatencyWindow(64, 50);
+
+        for (int i = 0; i < 64; i++) {
+            window.record(1_000);
+        }
+        assertThat(window.percentileNanos()).isEqualTo(1_000L);
+
+        for (int i = 0; i < 32; i++) {
+            window.record(10);
+        }
+        assertThat(window.percentileNanos()).isEqualTo(10L);
+
+        for (int i = 0; i < 32; i++) {
+            window.record(20);
+        }
+        assertThat(window.percentileNanos()).isEqualTo(10L);
+    }
+
+    @Test
+    void percentileMatchesASortOfTheLastSamples() {
+        Random random = new Random(11);
+
+        for (double percentile : new double[]{10, 50, 90, 99, 100}) {
+            LatencyWindow window = new LatencyWindow(100, percentile);
+            Deque<Long> recent = new ArrayDeque<>();
+
+            for (int i = 1; i <= 1000; i++) {
+                long sample = random.nextInt(1_000_000);
+                window.record(sample);
+                recent.addLast(sample);
+                if (recent.size() > 100) {
+                    recent.removeFirst();
+                }
+
+                if (i % 32 == 0) {
+                    long[] sorted = recent.stream().mapToLong(Long::longValue).toArray();
+                    Arrays.sort(sorted);
+                    int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+
+                    assertThat(window.percentileNanos()).as("p%s after %d samples", percentile, i)
+                            .isEqualTo(sorted[Math.max(0, rank - 1)]);
+                }
+            }
+        }
+    }
+}
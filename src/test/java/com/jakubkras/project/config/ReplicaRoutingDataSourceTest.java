@@ -0,0 +1,91 @@
+package com.jakubkras.project.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+
+    @Test
+    void withoutReplicasEveryReadGoesToThePrimary() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of());
+
+        assertThat(routing.hasReplicas()).isFalse();
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo("primary");
+    }
+
+    @Test
+    void replicaIsUsedOnlyAfterItReplayedTheRequiredWrite() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(mock(DataSource.class), mock(DataSource.class)));
+
+        assertThat(routing.determineCurrentLookupKey()).as("replay position not checked yet").isEqualTo("primary");
+
+        routing.requireLsn(100);
+        routing.recordReplayed(0, 50);
+        routing.recordReplayed(1, 150);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(routing.determineCurrentLookupKey()).isEqualTo(1);
+        }
+
+        routing.requireLsn(200);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo("primary");
+    }
+
+    @Test
+    void caughtUpReplicasShareTheReads() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(mock(DataSource.class), mock(DataSource.class)));
+        routing.requireLsn(100);
+        routing.recordReplayed(0, 100);
+        routing.recordReplayed(1, 120);
+
+        Set<Object> keys = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            keys.add(routing.determineCurrentLookupKey());
+        }
+        assertThat(keys).isEqualTo(Set.of(0, 1));
+    }
+
+    @Test
+    void requiredPositionBelongsToTheThreadThatSetIt() throws InterruptedException {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(mock(DataSource.class)));
+        routing.recordReplayed(0, 50);
+        routing.requireLsn(100);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo("primary");
+
+        Object[] otherThreadKey = new Object[1];
+        Thread other = Thread.ofPlatform().start(() -> otherThreadKey[0] = routing.determineCurrentLookupKey());
+        other.join();
+        assertThat(otherThreadKey[0]).as("another client's write does not pin this read").isEqualTo(0);
+
+        routing.requireLsn(80);
+        assertThat(routing.requiredLsn()).as("the floor never moves back").isEqualTo(100);
+
+        routing.clearRequiredLsn();
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(0);
+    }
+
+    @Test
+    void failedReplayCheckTakesTheReplicaOutOfRotation() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(mock(DataSource.class)));
+        routing.recordReplayed(0, 10);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(0);
+
+        routing.recordReplayed(0, -1);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo("primary");
+    }
+
+    @Test
+    void lsnIsParsedFromItsTextForm() {
+        assertThat(ReplicaRoutingDataSource.parseLsn("0/0")).isEqualTo(0L);
+        assertThat(ReplicaRoutingDataSource.parseLsn("16/B374D848")).isEqualTo((0x16L << 32) | 0xB374D848L);
+    }
+}
@@ -0,0 +1,132 @@
+package com.jakubkras.project.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.jakubkras.project.entity.Movie;
+import com.jakubkras.project.entity.Rating;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes and CPU time per serialized response for every negotiated format, with and without Blackbird.
+ * The size checks run with the regular build; the timing report runs with
+ * {@code mvn test -Dtest=ResponseFormatBenchmarkTest -Dbenchmark=true}.
+ */
+class ResponseFormatBenchmarkTest {
+
+    private static final int MOVIES = 200;
+    private static final int WARMUP = 3000;
+    private static final int ITERATIONS = 5000;
+
+    private final List<Movie> payload = payload();
+
+    @Test
+    void binaryFormatsAreSmallerThanJson() throws IOException {
+        Map<String, ObjectMapper> mappers = mappers();
+
+        int json = mappers.get("json").writeValueAsBytes(payload).length;
+
+        assertThat(mappers.get("smile").writeValueAsBytes(payload)).hasSizeLessThan(json);
+        assertThat(mappers.get("cbor").writeValueAsBytes(payload)).hasSizeLessThan(json);
+        assertThat(mappers.get("json+blackbird").writeValueAsBytes(payload)).hasSize(json);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void reportBytesAndCpuPerResponse() throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        System.out.printf("%-16s %10s %10s %12s%n", "format", "bytes", "gzip", "cpu us/resp");
+
+        for (Map.Entry<String, ObjectMapper> mode : mappers().entrySet()) {
+            ObjectMapper mapper = mode.getValue();
+            byte[] bytes = mapper.writeValueAsBytes(payload);
+
+            for (int i = 0; i < WARMUP; i++) {
+                mapper.writeValueAsBytes(payload);
+            }
+            long start = threads.getCurrentThreadCpuTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                mapper.writeValueAsBytes(payload);
+            }
+            long cpuNanos = threads.getCurrentThreadCpuTime() - start;
+
+            System.out.printf("%-16s %10d %10d %12.1f%n", mode.getKey(), bytes.length, gzip(bytes).length,
+                    cpuNanos / 1000.0 / ITERATIONS);
+        }
+    }
+
+    private Map<String, ObjectMapper> mappers() {
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", mapper(new JsonFactory(), false));
+        mappers.put("json+blackbird", mapper(new JsonFactory(), true));
+        mappers.put("smile", mapper(new SmileFactory(), false));
+        mappers.put("smile+blackbird", mapper(new SmileFactory(), true));
+        mappers.put("cbor", mapper(new CBORFactory(), false));
+        mappers.put("cbor+blackbird", mapper(new CBORFactory(), true));
+        return mappers;
+    }
+
+    private ObjectMapper mapper(JsonFactory factory, boolean blackbird) {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder().factory(factory);
+
+        if (blackbird) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        return builder.build();
+    }
+
+    private static List<Movie> payload() {
+        List<Movie> movies = new ArrayList<>(MOVIES);
+
+        for (int i = 0; i < MOVIES; i++) {
+            Movie movie = new Movie();
+            movie.setImdbID(String.format("tt%07d", i));
+            movie.setTitle("Movie number " + i);
+            movie.setReleaseYear("12 May " + (1950 + i % 70));
+            movie.setGenre("Action, Adventure, Sci-Fi");
+            movie.setPlot("A group of unlikely heroes sets out on a long journey to save their world from a threat they barely understand.");
+            movie.setAwards("Won " + i % 5 + " Oscars. " + i + " wins & " + 2 * i + " nominations total");
+
+            List<Rating> ratings = new ArrayList<>();
+            ratings.add(rating("Internet Movie Database", (i % 10) + ".1/10"));
+            ratings.add(rating("Rotten Tomatoes", (i % 100) + "%"));
+            ratings.add(rating("Metacritic", (i % 100) + "/100"));
+            movie.setRatings(ratings);
+
+            movies.add(movie);
+        }
+        return movies;
+    }
+
+    private static Rating rating(String source, String value) {
+        Rating rating = new Rating();
+        rating.setSource(source);
+        rating.setValue(value);
+        return rating;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+}
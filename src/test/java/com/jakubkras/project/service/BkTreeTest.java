@@ -0,0 +1,96 @@
+package com.jakubkras.project.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BkTreeTest {
+
+    private static final String ALPHABET = "abcde ";
+
+    private final Random random = new Random(42);
+
+    @Test
+    void bandedDistanceMatchesFullLevenshtein() {
+        for (int i = 0; i < 5000; i++) {
+            String first = randomKey(0, 12);
+            String second = randomKey(0, 12);
+            int limit = random.nextInt(5);
+            int expected = levenshtein(first, second);
+
+            int distance = BkTree.distance(first, second, limit);
+
+            if (expected <= limit) {
+                assertThat(distance).as("%s / %s limit %d", first, second, limit).isEqualTo(expected);
+            } else {
+                assertThat(distance).as("%s / %s limit %d", first, second, limit).isGreaterThan(limit);
+            }
+            assertThat(BkTree.distance(first, second, Integer.MAX_VALUE)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void searchFindsExactlyTheKeysOfALinearScan() {
+        BkTree tree = new BkTree();
+        Set<String> keys = new LinkedHashSet<>();
+
+        for (int i = 0; i < 2000; i++) {
+            String key = randomKey(1, 10);
+            assertThat(tree.add(key)).isEqualTo(keys.add(key));
+        }
+        assertThat(tree.size()).isEqualTo(keys.size());
+
+        for (int i = 0; i < 300; i++) {
+            String query = randomKey(1, 10);
+            int maxDistance = random.nextInt(4);
+
+            Map<String, Integer> expected = new HashMap<>();
+            for (String key : keys) {
+                int distance = levenshtein(query, key);
+                if (distance <= maxDistance) {
+                    expected.put(key, distance);
+                }
+            }
+
+            Map<String, Integer> found = new HashMap<>();
+            tree.search(query, maxDistance, (key, distance) ->
+                    assertThat(found.put(key, distance)).as("%s reported twice", key).isNull());
+
+            assertThat(found).as("query %s within %d", query, maxDistance).isEqualTo(expected);
+        }
+    }
+
+    private String randomKey(int minLength, int maxLength) {
+        StringBuilder key = new StringBuilder();
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+
+        for (int i = 0; i < length; i++) {
+            key.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return key.toString();
+    }
+
+    private static int levenshtein(String first, String second) {
+        int[][] cells = new int[first.length() + 1][second.length() + 1];
+
+        for (int i = 0; i <= first.length(); i++) {
+            cells[i][0] = i;
+        }
+        for (int j = 0; j <= second.length(); j++) {
+            cells[0][j] = j;
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            for (int j = 1; j <= second.length(); j++) {
+                int substitution = cells[i - 1][j - 1] + (first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1);
+                cells[i][j] = Math.min(substitution, Math.min(cells[i - 1][j], cells[i][j - 1]) + 1);
+            }
+        }
+        return cells[first.length()][second.length()];
+    }
+}
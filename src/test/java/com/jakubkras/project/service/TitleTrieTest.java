@@ -0,0 +1,95 @@
+package com.jakubkras.project.service;
+
+import com.jakubkras.project.entity.TitleSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TitleTrieTest {
+
+    private static final String ALPHABET = "abc ";
+    private static final int MAX_RESULTS = 5;
+
+    private final Random random = new Random(7);
+
+    @Test
+    void findMatchesALinearScanAcrossPutsAndRemoves() {
+        TitleTrie trie = new TitleTrie(MAX_RESULTS);
+        Map<String, Map<String, TitleSuggestion>> entries = new HashMap<>();
+        List<String[]> indexed = new ArrayList<>();
+
+        for (int step = 0; step < 4000; step++) {
+            if (indexed.isEmpty() || random.nextInt(3) > 0) {
+                String key = randomKey(1, 8);
+                String imdbID = "tt" + random.nextInt(300);
+                TitleSuggestion suggestion = new TitleSuggestion(imdbID, key, random.nextInt(20));
+
+                trie.put(key, suggestion);
+                entries.computeIfAbsent(key, k -> new HashMap<>()).put(imdbID, suggestion);
+                indexed.add(new String[]{key, imdbID});
+            } else {
+                String[] entry = indexed.remove(random.nextInt(indexed.size()));
+
+                trie.remove(entry[0], entry[1]);
+                Map<String, TitleSuggestion> byImdbID = entries.get(entry[0]);
+                if (byImdbID != null) {
+                    byImdbID.remove(entry[1]);
+                }
+            }
+
+            if (step % 10 == 0) {
+                for (int i = 0; i < 10; i++) {
+                    String prefix = randomKey(0, 4);
+                    int limit = 1 + random.nextInt(MAX_RESULTS);
+
+                    assertThat(trie.find(prefix, limit)).as("prefix '%s' at step %d", prefix, step)
+                            .isEqualTo(linearScan(entries, prefix, limit));
+                }
+            }
+        }
+    }
+
+    @Test
+    void removingAnUnknownKeyOrImdbIDChangesNothing() {
+        TitleTrie trie = new TitleTrie(MAX_RESULTS);
+        TitleSuggestion rocky = new TitleSuggestion("tt1", "rocky", 3);
+        trie.put("rocky", rocky);
+
+        trie.remove("rock", "tt1");
+        trie.remove("rocky", "tt2");
+        trie.remove("rockyy", "tt1");
+
+        assertThat(trie.find("ro", MAX_RESULTS)).isEqualTo(List.of(rocky));
+    }
+
+    private List<TitleSuggestion> linearScan(Map<String, Map<String, TitleSuggestion>> entries, String prefix, int limit) {
+        Map<String, TitleSuggestion> best = new HashMap<>();
+
+        entries.forEach((key, byImdbID) -> {
+            if (key.startsWith(prefix)) {
+                byImdbID.values().forEach(suggestion -> best.merge(suggestion.getImdbID(), suggestion,
+                        (first, second) -> TitleTrie.RANKING.compare(first, second) <= 0 ? first : second));
+            }
+        });
+
+        List<TitleSuggestion> ranked = new ArrayList<>(best.values());
+        ranked.sort(TitleTrie.RANKING);
+        return ranked.subList(0, Math.min(limit, ranked.size()));
+    }
+
+    private String randomKey(int minLength, int maxLength) {
+        StringBuilder key = new StringBuilder();
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+
+        for (int i = 0; i < length; i++) {
+            key.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return key.toString();
+    }
+}